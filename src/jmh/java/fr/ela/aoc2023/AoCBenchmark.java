@@ -0,0 +1,56 @@
+package fr.ela.aoc2023;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the phases of a day on its real input : parsing, then each part on a model parsed once in the setup.
+ * Slow days override the iterations on their own class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+public abstract class AoCBenchmark<M> {
+
+    AoC<M> day;
+    Path input;
+    M model;
+
+    protected abstract AoC<M> newDay();
+
+    @Setup
+    public void setup() {
+        day = newDay();
+        input = day.getInputPath();
+        model = day.parse(input);
+    }
+
+    @Benchmark
+    public M parse() {
+        return day.parse(input);
+    }
+
+    @Benchmark
+    public Object part1() {
+        return day.part1(model);
+    }
+
+    @Benchmark
+    public Object part2() {
+        return day.part2(model);
+    }
+}
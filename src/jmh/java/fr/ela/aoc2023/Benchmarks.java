@@ -0,0 +1,25 @@
+package fr.ela.aoc2023;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the day benchmarks with allocation profiling.
+ * Accepts the usual JMH command line, eg : java -jar target/benchmarks.jar "D17.*" -f 1
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cli).addProfiler(GCProfiler.class);
+        if (cli.getIncludes().isEmpty()) {
+            options.include("fr\\.ela\\.aoc2023\\.D[0-9]+Benchmark");
+        }
+        new Runner(options.build()).run();
+    }
+}
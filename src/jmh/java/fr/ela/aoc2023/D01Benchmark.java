@@ -0,0 +1,11 @@
+package fr.ela.aoc2023;
+
+import java.util.List;
+
+public class D01Benchmark extends AoCBenchmark<List<String>> {
+
+    @Override
+    protected AoC<List<String>> newDay() {
+        return new D01();
+    }
+}
@@ -0,0 +1,11 @@
+package fr.ela.aoc2023;
+
+import java.util.List;
+
+public class D02Benchmark extends AoCBenchmark<List<D02.Game>> {
+
+    @Override
+    protected AoC<List<D02.Game>> newDay() {
+        return new D02();
+    }
+}
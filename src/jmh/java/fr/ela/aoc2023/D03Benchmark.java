@@ -0,0 +1,9 @@
+package fr.ela.aoc2023;
+
+public class D03Benchmark extends AoCBenchmark<D03.EngineSchematic> {
+
+    @Override
+    protected AoC<D03.EngineSchematic> newDay() {
+        return new D03();
+    }
+}
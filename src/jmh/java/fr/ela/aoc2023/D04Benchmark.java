@@ -0,0 +1,11 @@
+package fr.ela.aoc2023;
+
+import java.util.List;
+
+public class D04Benchmark extends AoCBenchmark<List<D04.Card>> {
+
+    @Override
+    protected AoC<List<D04.Card>> newDay() {
+        return new D04();
+    }
+}
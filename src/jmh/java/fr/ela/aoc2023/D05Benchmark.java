@@ -0,0 +1,9 @@
+package fr.ela.aoc2023;
+
+public class D05Benchmark extends AoCBenchmark<D05.Almanac> {
+
+    @Override
+    protected AoC<D05.Almanac> newDay() {
+        return new D05();
+    }
+}
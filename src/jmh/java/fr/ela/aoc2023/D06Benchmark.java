@@ -0,0 +1,11 @@
+package fr.ela.aoc2023;
+
+import java.util.List;
+
+public class D06Benchmark extends AoCBenchmark<List<D06.Race>> {
+
+    @Override
+    protected AoC<List<D06.Race>> newDay() {
+        return new D06();
+    }
+}
@@ -0,0 +1,11 @@
+package fr.ela.aoc2023;
+
+import java.util.List;
+
+public class D07Benchmark extends AoCBenchmark<List<D07.Bid>> {
+
+    @Override
+    protected AoC<List<D07.Bid>> newDay() {
+        return new D07();
+    }
+}
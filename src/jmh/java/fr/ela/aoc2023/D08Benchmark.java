@@ -0,0 +1,9 @@
+package fr.ela.aoc2023;
+
+public class D08Benchmark extends AoCBenchmark<D08.Plan> {
+
+    @Override
+    protected AoC<D08.Plan> newDay() {
+        return new D08();
+    }
+}
@@ -0,0 +1,11 @@
+package fr.ela.aoc2023;
+
+import java.util.List;
+
+public class D09Benchmark extends AoCBenchmark<List<D09.Sequence>> {
+
+    @Override
+    protected AoC<List<D09.Sequence>> newDay() {
+        return new D09();
+    }
+}
@@ -0,0 +1,9 @@
+package fr.ela.aoc2023;
+
+public class D10Benchmark extends AoCBenchmark<D10.Grid> {
+
+    @Override
+    protected AoC<D10.Grid> newDay() {
+        return new D10();
+    }
+}
@@ -0,0 +1,9 @@
+package fr.ela.aoc2023;
+
+public class D11Benchmark extends AoCBenchmark<D11.Universe> {
+
+    @Override
+    protected AoC<D11.Universe> newDay() {
+        return new D11();
+    }
+}
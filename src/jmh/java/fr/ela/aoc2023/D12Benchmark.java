@@ -0,0 +1,11 @@
+package fr.ela.aoc2023;
+
+import java.util.List;
+
+public class D12Benchmark extends AoCBenchmark<List<D12.HotSprings>> {
+
+    @Override
+    protected AoC<List<D12.HotSprings>> newDay() {
+        return new D12();
+    }
+}
@@ -0,0 +1,11 @@
+package fr.ela.aoc2023;
+
+import java.util.List;
+
+public class D13Benchmark extends AoCBenchmark<List<D13.Reflections>> {
+
+    @Override
+    protected AoC<List<D13.Reflections>> newDay() {
+        return new D13();
+    }
+}
@@ -0,0 +1,9 @@
+package fr.ela.aoc2023;
+
+public class D14Benchmark extends AoCBenchmark<D14.Platform> {
+
+    @Override
+    protected AoC<D14.Platform> newDay() {
+        return new D14();
+    }
+}
@@ -0,0 +1,11 @@
+package fr.ela.aoc2023;
+
+import fr.ela.aoc2023.utils.MappedInput;
+
+public class D15Benchmark extends AoCBenchmark<MappedInput> {
+
+    @Override
+    protected AoC<MappedInput> newDay() {
+        return new D15();
+    }
+}
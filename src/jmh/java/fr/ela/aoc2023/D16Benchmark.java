@@ -0,0 +1,9 @@
+package fr.ela.aoc2023;
+
+public class D16Benchmark extends AoCBenchmark<D16.Grid> {
+
+    @Override
+    protected AoC<D16.Grid> newDay() {
+        return new D16();
+    }
+}
@@ -0,0 +1,9 @@
+package fr.ela.aoc2023;
+
+public class D17Benchmark extends AoCBenchmark<D17.City> {
+
+    @Override
+    protected AoC<D17.City> newDay() {
+        return new D17();
+    }
+}
@@ -0,0 +1,11 @@
+package fr.ela.aoc2023;
+
+import java.util.List;
+
+public class D18Benchmark extends AoCBenchmark<List<D18.Move>> {
+
+    @Override
+    protected AoC<List<D18.Move>> newDay() {
+        return new D18();
+    }
+}
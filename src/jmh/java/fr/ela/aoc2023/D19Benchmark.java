@@ -0,0 +1,9 @@
+package fr.ela.aoc2023;
+
+public class D19Benchmark extends AoCBenchmark<D19.Sorting> {
+
+    @Override
+    protected AoC<D19.Sorting> newDay() {
+        return new D19();
+    }
+}
@@ -0,0 +1,9 @@
+package fr.ela.aoc2023;
+
+public class D20Benchmark extends AoCBenchmark<D20.Machine> {
+
+    @Override
+    protected AoC<D20.Machine> newDay() {
+        return new D20();
+    }
+}
@@ -0,0 +1,18 @@
+package fr.ela.aoc2023;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Part 2 takes seconds : single shot runs.
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class D21Benchmark extends AoCBenchmark<D21.Garden> {
+
+    @Override
+    protected AoC<D21.Garden> newDay() {
+        return new D21();
+    }
+}
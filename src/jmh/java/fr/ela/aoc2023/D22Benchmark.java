@@ -0,0 +1,9 @@
+package fr.ela.aoc2023;
+
+public class D22Benchmark extends AoCBenchmark<D22.Space> {
+
+    @Override
+    protected AoC<D22.Space> newDay() {
+        return new D22();
+    }
+}
@@ -0,0 +1,15 @@
+package fr.ela.aoc2023;
+
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Part 2 takes around a second with the pruned path search : longer iterations, so that each one runs it a few times.
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class D23Benchmark extends AoCBenchmark<D23.Mountain> {
+
+    @Override
+    protected AoC<D23.Mountain> newDay() {
+        return new D23();
+    }
+}
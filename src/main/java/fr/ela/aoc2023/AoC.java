@@ -1,5 +1,9 @@
 package fr.ela.aoc2023;
 
+import fr.ela.aoc2023.utils.MappedInput;
+import fr.ela.aoc2023.utils.SearchListener;
+import fr.ela.aoc2023.utils.SearchMetrics;
+
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -8,16 +12,81 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public abstract class AoC<M> implements Day<M> {
+
+    private static final Pattern DAY_SOURCE = Pattern.compile("D[0-9]+\\.java");
 
-public abstract class AoC {
+    // True on the thread running a day : search metrics are printed then, not when the parts are benchmarked.
+    private static final ThreadLocal<Boolean> RUNNING = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Solves both parts on the test input, then on the real input.
+     * When the day has an input-test2 file, it is the test input of part 2.
+     */
+    public void run() {
+        RUNNING.set(true);
+        try {
+            Path testInput = getTestInputPath();
+            Path part2TestInput = getPath("input-test2");
+            solve("Test ", testInput, Files.exists(part2TestInput) ? part2TestInput : testInput);
+            solve("", getInputPath(), getInputPath());
+        } finally {
+            RUNNING.remove();
+        }
+    }
 
-    public abstract void run();
+    /**
+     * Runs a search with a metrics recorder as listener, and prints the metrics when the day is run.
+     */
+    protected long withMetrics(ToLongFunction<SearchListener> search) {
+        SearchMetrics.Recorder recorder = new SearchMetrics.Recorder();
+        long result = search.applyAsLong(recorder);
+        if (RUNNING.get()) {
+            System.out.println("Search : " + recorder.metrics());
+        }
+        return result;
+    }
+
+    private void solve(String prefix, Path part1Input, Path part2Input) {
+        M model = parse(prefix, part1Input);
+        print(prefix, 1, () -> part1(model));
+        M part2Model = part2Input.equals(part1Input) ? model : parse(prefix, part2Input);
+        print(prefix, 2, () -> part2(part2Model));
+    }
+
+    private M parse(String prefix, Path input) {
+        long start = System.nanoTime();
+        M model = parse(input);
+        System.out.println(prefix + "Input " + input.getFileName() + " parsed (" + formatDuration(start) + ")");
+        return model;
+    }
+
+    private void print(String prefix, int part, Supplier<Object> solver) {
+        long start = System.nanoTime();
+        Object result = solver.get();
+        if (result != null) {
+            System.out.println(prefix + "Part " + part + " : " + result + " (" + formatDuration(start) + ")");
+        }
+    }
+
+    public boolean isTestInput(Path input) {
+        return input.getFileName().toString().startsWith("input-test");
+    }
 
     public static void repeat(int times, IntConsumer action) {
         IntStream.range(0, times).forEach(action);
@@ -56,6 +125,10 @@ public abstract class AoC {
     }
 
 
+    public MappedInput map(Path path) {
+        return MappedInput.map(path);
+    }
+
     public List<List<String>> splitOnEmptyLines(Path path) {
         List<List<String>> result = new ArrayList<>();
         List<String> current = new ArrayList<>();
@@ -71,6 +144,45 @@ public abstract class AoC {
         return result;
     }
 
+    /**
+     * Lazy version of splitOnEmptyLines : blocks are read one at a time, so only the current block is in memory.
+     * The stream is sequential : blocks come in file order, and the spliterator can only be split by handing out batches
+     * of blocks already read, as any AbstractSpliterator does. It must be closed to release the file.
+     */
+    public Stream<List<String>> streamOnEmptyLines(Path path) {
+        Stream<String> lines = stream(path);
+        return StreamSupport.stream(new BlockSpliterator(lines.iterator()), false).onClose(lines::close);
+    }
+
+    private static class BlockSpliterator extends Spliterators.AbstractSpliterator<List<String>> {
+        private final Iterator<String> lines;
+        private boolean done;
+
+        BlockSpliterator(Iterator<String> lines) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.lines = lines;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super List<String>> action) {
+            if (done) {
+                return false;
+            }
+            List<String> block = new ArrayList<>();
+            while (lines.hasNext()) {
+                String line = lines.next();
+                if (line.isEmpty()) {
+                    action.accept(block);
+                    return true;
+                }
+                block.add(line);
+            }
+            // Like splitOnEmptyLines, the last block is there even when empty.
+            done = true;
+            action.accept(block);
+            return true;
+        }
+    }
 
     public <T> Stream<T> oneLineStream(Path path, String sep, Function<String, T> mapper) {
         return Arrays.stream(readFile(path).split(sep)).map(mapper);
@@ -111,19 +223,11 @@ public abstract class AoC {
     public static void main(String[] args) {
         try {
             if (args.length == 0 || "last".equals(args[0])) {
-                Path path = Path.of("src/main/java", AoC.class.getPackageName().split("\\."));
-                String name = Files.list(path).map(Path::getFileName).map(Path::toString).filter(p -> p.endsWith(".java")).max(Comparator.naturalOrder()).orElse("");
-                if (name.endsWith(".java")) {
-                    name = name.substring(0, name.length() - ".java".length());
-                }
-                run(name);
+                days().stream().max(Comparator.naturalOrder()).ifPresent(AoC::run);
             } else if (args.length == 1 && "all".equals(args[0])) {
-                Path path = Path.of("src/main/java", AoC.class.getPackageName().split("\\."));
-                Files.list(path).map(Path::getFileName).map(Path::toString)
-                        .filter(p -> ! p.endsWith(AoC.class.getSimpleName()+".java"))
-                        .filter(p -> p.endsWith(".java"))
-                        .map(name -> name.substring(0, name.length() - ".java".length()))
-                        .sorted(Comparator.naturalOrder()).forEach(AoC::run);
+                days().forEach(AoC::run);
+            } else if (args.length == 1 && "parallel".equals(args[0])) {
+                new ParallelRunner(days()).run();
             } else {
                 Arrays.stream(args).forEach(AoC::run);
             }
@@ -132,11 +236,26 @@ public abstract class AoC {
         }
     }
 
+    // Day classes are the Dxx sources of this package.
+    static List<String> days() throws IOException {
+        Path path = Path.of("src/main/java", AoC.class.getPackageName().split("\\."));
+        try (Stream<Path> files = Files.list(path)) {
+            return files.map(Path::getFileName).map(Path::toString)
+                    .filter(p -> DAY_SOURCE.matcher(p).matches())
+                    .map(name -> name.substring(0, name.length() - ".java".length()))
+                    .sorted(Comparator.naturalOrder()).toList();
+        }
+    }
+
+    static AoC<?> newInstance(String className) throws ReflectiveOperationException {
+        Class<AoC<?>> clazz = (Class<AoC<?>>) Class.forName(AoC.class.getPackageName() + "." + className);
+        return clazz.getDeclaredConstructor().newInstance();
+    }
+
     private static void run(String className) {
         try {
-            Class<AoC> clazz = (Class<AoC>) Class.forName(AoC.class.getPackageName() + "." + className);
-            AoC instance = clazz.getDeclaredConstructor().newInstance();
-            System.out.println("---- AoC "+clazz.getSimpleName()+" -----------");
+            AoC<?> instance = newInstance(className);
+            System.out.println("---- AoC "+instance.getClass().getSimpleName()+" -----------");
             instance.run();
             System.out.println("");
         } catch (Exception e) {
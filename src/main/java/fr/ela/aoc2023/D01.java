@@ -1,5 +1,6 @@
 package fr.ela.aoc2023;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -8,7 +9,7 @@ import java.util.function.ToIntBiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-public class D01 extends AoC {
+public class D01 extends AoC<List<String>> {
     Map<String, Integer> replacements = Map.of("one", 1,
             "two", 2,
             "three", 3,
@@ -79,12 +80,18 @@ public class D01 extends AoC {
     }
 
     @Override
-    public void run() {
-        System.out.println("Test Calibration Value 1 : " + stream(getTestInputPath()).mapToInt(this::getNumberPartOne).sum());
-        System.out.println("Calibration Value 1 : " + stream(getInputPath()).mapToInt(this::getNumberPartOne).sum());
+    public List<String> parse(Path input) {
+        return list(input);
+    }
 
-        System.out.println("Test Calibration Value 2 : " + stream(getPath("input-test2")).mapToInt(this::getNumberPartTwo).sum());
-        System.out.println("Calibration Value 2 : " + stream(getInputPath()).mapToInt(this::getNumberPartTwo).sum());
+    @Override
+    public Integer part1(List<String> lines) {
+        return lines.stream().mapToInt(this::getNumberPartOne).sum();
+    }
+
+    @Override
+    public Integer part2(List<String> lines) {
+        return lines.stream().mapToInt(this::getNumberPartTwo).sum();
     }
 
 
@@ -1,5 +1,6 @@
 package fr.ela.aoc2023;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -7,7 +8,7 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class D02 extends AoC {
+public class D02 extends AoC<List<D02.Game>> {
     Pattern GAME_PATTERN = Pattern.compile("Game ([0-9]+): (.*)");
     Pattern DRAW_PATTERN = Pattern.compile("(([0-9]+) (red|green|blue),?)");
 
@@ -56,12 +57,20 @@ public class D02 extends AoC {
 
 
     @Override
-    public void run() {
-        System.out.println("Possible Test Games : " + stream(getTestInputPath()).map(Game::new).filter(g -> g.isValid(14, 12, 13)).mapToInt(g -> g.id).sum());
-        System.out.println("Possible Games : " + stream(getInputPath()).map(Game::new).filter(g -> g.isValid(14, 12, 13)).mapToInt(g -> g.id).sum());
-        System.out.println("Sum of Test Games powers : " + stream(getTestInputPath()).map(Game::new).mapToInt(Game::power).sum());
-        System.out.println("Sum of Games powers : " + stream(getInputPath()).map(Game::new).mapToInt(Game::power).sum());
+    public List<Game> parse(Path input) {
+        return list(input, Game::new);
+    }
 
+    // Possible games
+    @Override
+    public Integer part1(List<Game> games) {
+        return games.stream().filter(g -> g.isValid(14, 12, 13)).mapToInt(g -> g.id).sum();
+    }
+
+    // Sum of games powers
+    @Override
+    public Integer part2(List<Game> games) {
+        return games.stream().mapToInt(Game::power).sum();
     }
 
 
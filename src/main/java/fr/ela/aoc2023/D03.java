@@ -1,10 +1,11 @@
 package fr.ela.aoc2023;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.IntStream;
 
-public class D03 extends AoC {
+public class D03 extends AoC<D03.EngineSchematic> {
 
     record EngineSchematic(List<PartNumber> partNumbers, List<Symbol> symbols) {
         public int partOne() {
@@ -78,13 +79,20 @@ public class D03 extends AoC {
     }
 
     @Override
-    public void run() {
-        EngineSchematic test = parseInput(list(getTestInputPath()));
-        System.out.println("Test Part Numbers sum : " + test.partOne());
-        System.out.println("Test Gear Ratio : " + test.partTwo());
-        EngineSchematic schematic = parseInput(list(getInputPath()));
-        System.out.println("Part Numbers sum : " + schematic.partOne());
-        System.out.println("Gear Ratio : " + schematic.partTwo());
+    public EngineSchematic parse(Path input) {
+        return parseInput(list(input));
+    }
+
+    // Part numbers sum
+    @Override
+    public Integer part1(EngineSchematic schematic) {
+        return schematic.partOne();
+    }
+
+    // Gear ratio
+    @Override
+    public Integer part2(EngineSchematic schematic) {
+        return schematic.partTwo();
     }
 
 
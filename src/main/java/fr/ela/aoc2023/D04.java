@@ -1,5 +1,6 @@
 package fr.ela.aoc2023;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -8,7 +9,7 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class D04 extends AoC {
+public class D04 extends AoC<List<D04.Card>> {
 
     static Pattern CARD_PATTERN = Pattern.compile("Card\s+([0-9]+): ([0-9 ]+)\\|([0-9 ]+)");
 
@@ -51,14 +52,20 @@ public class D04 extends AoC {
     }
 
     @Override
-    public void run() {
-        List<Card> testCards = list(getTestInputPath(), Card::parse);
-        System.out.println("Test points part 1 : " + testCards.stream().mapToInt(Card::scorePartOne).sum());
-        System.out.println("Test number of cards : : " + countCopies(testCards).values().stream().mapToInt(Integer::intValue).sum());
+    public List<Card> parse(Path input) {
+        return list(input, Card::parse);
+    }
 
-        List<Card> cards = list(getInputPath(), Card::parse);
-        System.out.println("Points part 1 : " + cards.stream().mapToInt(Card::scorePartOne).sum());
-        System.out.println("Number of cards : : " + countCopies(cards).values().stream().mapToInt(Integer::intValue).sum());
+    // Points
+    @Override
+    public Integer part1(List<Card> cards) {
+        return cards.stream().mapToInt(Card::scorePartOne).sum();
+    }
+
+    // Number of cards
+    @Override
+    public Integer part2(List<Card> cards) {
+        return countCopies(cards).values().stream().mapToInt(Integer::intValue).sum();
     }
 
 
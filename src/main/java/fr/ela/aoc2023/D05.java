@@ -1,91 +1,24 @@
 package fr.ela.aoc2023;
 
 import java.nio.file.Path;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.function.Function;
 import java.util.function.LongUnaryOperator;
 import java.util.stream.Stream;
 
-public class D05 extends AoC {
+public class D05 extends AoC<D05.Almanac> {
 
     record Range(long start, long end) implements Comparable<Range> {
 
-        static Optional<Range> maybe(long start, long end) {
-            if (end >= start) {
-                return Optional.of(new Range(start, end));
-            } else {
-                return Optional.empty();
-            }
-        }
-
-        public long size() {
-            return end - start + 1;
-        }
-
         public String toString() {
             return "[" + start + ".." + end + "]";
         }
 
-        public boolean contains(long value) {
-            return value >= start && value <= end;
-        }
-
-        public boolean contains(Range other) {
-            return contains(other.start) && contains(other.end);
-        }
-
-        public boolean overlap(Range other) {
-            return contains(other.start) || contains(other.end) || other.contains(start) || other.contains(end);
-        }
-
         @Override
         public int compareTo(Range o) {
             return Comparator.comparingLong(Range::start).thenComparing(Range::end).compare(this, o);
         }
-
-        public Range intersectionWith(Range other) {
-            if (!this.overlap(other)) {
-                return null;
-            } else if (this.equals(other)) {
-                return this;
-            } else {
-                return new Range(Math.max(this.start, other.start), Math.min(this.end, other.end));
-            }
-        }
-
-        Range move(long offset) {
-            return new Range(start + offset, end + offset);
-        }
-    }
-
-    static List<Range> reduce(List<Range> ranges) {
-        if (ranges.size() == 1 || ranges.isEmpty()) {
-            return ranges;
-        }
-        Set<Range> newRanges = new HashSet<>();
-        Iterator<Range> it = ranges.stream().sorted(Comparator.comparingLong(Range::start)).iterator();
-        Range current = it.next();
-        long curStart = current.start;
-        long currEnd = current.end;
-        while (it.hasNext()) {
-            current = it.next();
-            if (current.start > currEnd + 1) {
-                newRanges.add(new Range(curStart, currEnd));
-                curStart = current.start;
-                currEnd = current.end;
-            } else {
-                currEnd = Math.max(currEnd, current.end);
-            }
-        }
-        newRanges.add(new Range(curStart, currEnd));
-        return newRanges.stream().sorted().toList();
     }
 
     record TTTEntry(Range range, long offset) {
@@ -102,81 +35,114 @@ public class D05 extends AoC {
 
             return new TTTEntry(new Range(source, source + Long.parseLong(numbers[2]) - 1), offset);
         }
+    }
 
-        long to(long from) {
-            if (range.contains(from)) {
-                return from + offset;
-            } else {
-                return -1;
-            }
-        }
-
-        public void transform(RangeMap rangeMap) {
-            List<Range> remains = new ArrayList<>();
-            List<Range> transformations = new ArrayList<>();
-            for (Range from : rangeMap.remains) {
-                if (range.overlap(from)) {
-                    Range intersection = range.intersectionWith(from);
-                    Range.maybe(from.start, range.start - 1).ifPresent(remains::add);
-                    transformations.add(intersection.move(offset));
-                    Range.maybe(range.end + 1, from.end).ifPresent(remains::add);
-                } else {
-                    remains.add(from);
+    /**
+     * Entries are sorted by start, without overlaps : they are compiled into a Piecewise function.
+     */
+    record TTTMap(String name, List<TTTEntry> entriesList) {
+        static TTTMap parse(String name, Stream<String> stream) {
+            List<TTTEntry> entries = stream.map(TTTEntry::parse).sorted(Comparator.comparing(TTTEntry::range)).toList();
+            for (int i = 1; i < entries.size(); i++) {
+                if (entries.get(i).range().start() <= entries.get(i - 1).range().end()) {
+                    throw new IllegalArgumentException("Overlapping entries in " + name + " : " + entries.get(i - 1) + ", " + entries.get(i));
                 }
             }
-            rangeMap.remains.clear();
-            List<Range> reduced = reduce(remains);
-            //if (reduced.size() < remains.size()) {
-            //    System.out.println("Reduction of remains : \n\t in : " + remains.stream().sorted().map(Range::toString).collect(Collectors.joining(", ")));
-            //    System.out.println("\tout : " + reduced.stream().sorted().map(Range::toString).collect(Collectors.joining(", ")));
-            //}
-            rangeMap.remains.addAll(reduced);
-            rangeMap.transformed.addAll(transformations);
+            return new TTTMap(name, entries);
         }
     }
 
-    record RangeMap(List<Range> remains, List<Range> transformed) {
-        long size() {
-            return transformed.stream().mapToLong(Range::size).sum() + remains.stream().mapToLong(Range::size).sum();
-        }
-
-        List<Range> result() {
-            var result = new ArrayList<>(transformed);
-            result.addAll(remains);
-            return result;
+    /**
+     * Function of the non negative longs adding offsets[i] to the values in [starts[i], starts[i + 1]) : starts[0] is 0
+     * and the last segment goes up to Long.MAX_VALUE. The composition of two of them is another one, so the seven maps
+     * of the almanac are compiled once into a single function, evaluated with a binary search.
+     */
+    record Piecewise(long[] starts, long[] offsets) implements LongUnaryOperator {
+
+        static Piecewise of(TTTMap map) {
+            Builder builder = new Builder();
+            long next = 0;
+            for (TTTEntry entry : map.entriesList()) {
+                builder.add(next, 0);
+                builder.add(entry.range().start(), entry.offset());
+                next = entry.range().end() + 1;
+            }
+            builder.add(next, 0);
+            return builder.build();
         }
-    }
 
-    record TTTMap(String name, List<TTTEntry> entriesList) implements LongUnaryOperator {
-        static TTTMap parse(String name, Stream<String> stream) {
-            return new TTTMap(name, stream.map(TTTEntry::parse).toList());
+        int index(long value) {
+            int i = Arrays.binarySearch(starts, value);
+            return i >= 0 ? i : -i - 2;
         }
 
         @Override
-        public long applyAsLong(long thing) {
-            if (thing == -1) {
-                return -1;
+        public long applyAsLong(long value) {
+            return value + offsets[index(value)];
+        }
+
+        /**
+         * The function applying this one, then the next one : each segment is split where its image crosses a start of next.
+         */
+        Piecewise then(Piecewise next) {
+            Builder builder = new Builder();
+            for (int i = 0; i < starts.length; i++) {
+                long end = i + 1 < starts.length ? starts[i + 1] : Long.MAX_VALUE;
+                long from = starts[i];
+                int j = next.index(from + offsets[i]);
+                builder.add(from, offsets[i] + next.offsets[j]);
+                while (j + 1 < next.starts.length && next.starts[j + 1] - offsets[i] < end) {
+                    j++;
+                    builder.add(next.starts[j] - offsets[i], offsets[i] + next.offsets[j]);
+                }
             }
-            return entriesList.stream().mapToLong(e -> e.to(thing)).filter(l -> l > -1).findFirst().orElse(thing);
+            return builder.build();
         }
 
-        public List<Range> transform(List<Range> ranges) {
-            RangeMap in = new RangeMap(new ArrayList<>(ranges), new ArrayList<>());
-            entriesList.forEach(e -> e.transform(in));
-            List<Range> out = in.result();
-            //System.out.println(name + "\n\tin : " + ranges.stream().sorted().map(Range::toString).collect(Collectors.joining(", ")));
-            //System.out.println("\tout : " + out.stream().sorted().map(Range::toString).collect(Collectors.joining(", ")));
-            return out;
+        // Each segment is moved by a constant offset : its lowest value is the image of its start.
+        long lowest(Range range) {
+            long lowest = Long.MAX_VALUE;
+            for (int i = index(range.start()); i < starts.length && starts[i] <= range.end(); i++) {
+                lowest = Math.min(lowest, Math.max(range.start(), starts[i]) + offsets[i]);
+            }
+            return lowest;
         }
 
-        public Function<List<Range>, List<Range>> toRanges() {
-            return this::transform;
+        /**
+         * Segments are added in increasing starts : an empty segment is replaced by the next one, and a segment with the
+         * same offset as the previous one extends it.
+         */
+        private static class Builder {
+            private long[] starts = new long[16];
+            private long[] offsets = new long[16];
+            private int size;
+
+            void add(long start, long offset) {
+                if (size > 0 && starts[size - 1] == start) {
+                    size--;
+                }
+                if (size > 0 && offsets[size - 1] == offset) {
+                    return;
+                }
+                if (size == starts.length) {
+                    starts = Arrays.copyOf(starts, size * 2);
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                }
+                starts[size] = start;
+                offsets[size] = offset;
+                size++;
+            }
+
+            Piecewise build() {
+                return new Piecewise(Arrays.copyOf(starts, size), Arrays.copyOf(offsets, size));
+            }
         }
     }
 
     public class Almanac {
         List<Long> seeds;
         TTTMap seedToSoil, soilToFertilizer, fertilizerToWater, waterToLight, lightToTemperature, temperatureToHumidity, humidityToLocation;
+        final Piecewise seedToLocation;
 
         public Almanac(Path data) {
             List<List<String>> list = splitOnEmptyLines(data);
@@ -189,6 +155,8 @@ public class D05 extends AoC {
             lightToTemperature = parseMap(list.get(5));
             temperatureToHumidity = parseMap(list.get(6));
             humidityToLocation = parseMap(list.get(7));
+            seedToLocation = Stream.of(seedToSoil, soilToFertilizer, fertilizerToWater, waterToLight, lightToTemperature, temperatureToHumidity, humidityToLocation)
+                    .map(Piecewise::of).reduce(Piecewise::then).orElseThrow();
         }
 
         static TTTMap parseMap(List<String> lines) {
@@ -197,46 +165,37 @@ public class D05 extends AoC {
         }
 
         long getLowestLocation() {
-            LongUnaryOperator func = l -> seedToSoil
-                    .andThen(soilToFertilizer)
-                    .andThen(fertilizerToWater)
-                    .andThen(waterToLight)
-                    .andThen(lightToTemperature)
-                    .andThen(temperatureToHumidity)
-                    .andThen(humidityToLocation).applyAsLong(l);
-            return seeds.stream().mapToLong(Long::longValue).map(func).filter(l -> l != -1).min().orElse(-1);
+            return seeds.stream().mapToLong(seedToLocation::applyAsLong).min().orElse(-1);
         }
 
         long getLowestLocationForAllSeeds() {
-            List<Range> ranges = new ArrayList<>();
-            Function<List<Range>, List<Range>> func = seedToSoil.toRanges()
-                    .andThen(soilToFertilizer.toRanges())
-                    .andThen(fertilizerToWater.toRanges())
-                    .andThen(waterToLight.toRanges())
-                    .andThen(lightToTemperature.toRanges())
-                    .andThen(temperatureToHumidity.toRanges())
-                    .andThen(humidityToLocation.toRanges());
+            long lowest = Long.MAX_VALUE;
             for (int i = 0; i < seeds.size(); i += 2) {
                 long start = seeds.get(i);
                 long end = start + seeds.get(i + 1);
-                ranges.add(new Range(start, end - 1));
+                lowest = Math.min(lowest, seedToLocation.lowest(new Range(start, end - 1)));
             }
-            return func.apply(ranges).stream()
-                    .mapToLong(Range::start).min().orElse(-1);
+            return lowest == Long.MAX_VALUE ? -1 : lowest;
         }
 
     }
 
 
     @Override
-    public void run() {
-        Almanac testAlmanac = new Almanac(getTestInputPath());
-        System.out.println("Test Lowest Location (35) : " + testAlmanac.getLowestLocation());
-        System.out.println("Test Lowest Location 2 (46) : " + testAlmanac.getLowestLocationForAllSeeds());
-
-        Almanac almanac = new Almanac(getInputPath());
-        System.out.println("Lowest Location (218513636) : " + almanac.getLowestLocation());
-        System.out.println("Lowest Location 2 (81956384) : " + almanac.getLowestLocationForAllSeeds());
+    public Almanac parse(Path input) {
+        return new Almanac(input);
+    }
+
+    // Lowest location : test 35, real 218513636
+    @Override
+    public Long part1(Almanac almanac) {
+        return almanac.getLowestLocation();
+    }
+
+    // Lowest location for seed ranges : test 46, real 81956384
+    @Override
+    public Long part2(Almanac almanac) {
+        return almanac.getLowestLocationForAllSeeds();
     }
 
 }
@@ -5,7 +5,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-public class D06 extends AoC {
+public class D06 extends AoC<List<D06.Race>> {
 
     /**
      * Race : Time allowed, record distance.
@@ -59,14 +59,20 @@ public class D06 extends AoC {
     }
 
     @Override
-    public void run() {
-        List<Race> testRaces = parseRaces(getTestInputPath());
-        System.out.println("Test Number of ways to win part 1 (288) : " + numberOfWaysToWin(testRaces));
-        System.out.println("Test Number of ways to win part 2 (71503) : " + Race.longRace(testRaces).waysToWin());
+    public List<Race> parse(Path input) {
+        return parseRaces(input);
+    }
 
-        List<Race> races = parseRaces(getInputPath());
-        System.out.println("Number of ways to win part 1 (345015) : " + numberOfWaysToWin(races));
-        System.out.println("Number of ways to win part 2 (42588603) : " + Race.longRace(races).waysToWin());
+    // Number of ways to win : test 288, real 345015
+    @Override
+    public Long part1(List<Race> races) {
+        return numberOfWaysToWin(races);
+    }
+
+    // Number of ways to win the long race : test 71503, real 42588603
+    @Override
+    public Long part2(List<Race> races) {
+        return Race.longRace(races).waysToWin();
     }
 
 }
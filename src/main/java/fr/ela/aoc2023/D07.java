@@ -1,5 +1,6 @@
 package fr.ela.aoc2023;
 
+import java.nio.file.Path;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
@@ -7,7 +8,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.IntStream;
 
-public class D07 extends AoC {
+public class D07 extends AoC<List<D07.Bid>> {
 
     public record Hand(String cards, Map<Character, Integer> buckets) implements Comparable<Hand> {
 
@@ -113,14 +114,19 @@ public class D07 extends AoC {
 
 
     @Override
-    public void run() {
-        List<Bid> testBids = list(getTestInputPath(), Bid::parse);
-        System.out.println("Total Winnings of Test hands (6440) : " + getTotalWinnings(testBids));
-        List<Bid> testBidsWithJokers = testBids.stream().map(Bid::withJokers).toList();
-        System.out.println("Total Winnings of Test hands with Jokers (5905) : " + getTotalWinnings(testBidsWithJokers));
-        List<Bid> bids = list(getInputPath(), Bid::parse);
-        System.out.println("Total Winnings of hands (255048101) : " + getTotalWinnings(bids));
-        List<Bid> bidsWithJokers = bids.stream().map(Bid::withJokers).toList();
-        System.out.println("Total Winnings of hands (253718286) : " + getTotalWinnings(bidsWithJokers));
+    public List<Bid> parse(Path input) {
+        return list(input, Bid::parse);
+    }
+
+    // Total winnings : test 6440, real 255048101
+    @Override
+    public Long part1(List<Bid> bids) {
+        return getTotalWinnings(bids);
+    }
+
+    // Total winnings with jokers : test 5905, real 253718286
+    @Override
+    public Long part2(List<Bid> bids) {
+        return getTotalWinnings(bids.stream().map(Bid::withJokers).toList());
     }
 }
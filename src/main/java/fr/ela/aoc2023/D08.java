@@ -1,5 +1,6 @@
 package fr.ela.aoc2023;
 
+import java.nio.file.Path;
 import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.List;
@@ -8,11 +9,11 @@ import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class D08 extends AoC {
+public class D08 extends AoC<D08.Plan> {
 
     private final Pattern PATTERN = Pattern.compile("([A-Z0-9]{3}) = \\(([A-Z0-9]{3}), ([A-Z0-9]{3})\\)");
 
-    private class Plan {
+    class Plan {
 
         String directions;
 
@@ -73,13 +74,19 @@ public class D08 extends AoC {
     }
 
     @Override
-    public void run() {
-        Plan testPlan = new Plan(list(getTestInputPath()));
-        System.out.println("Test plan : "+ testPlan.countStepsToZZZ()+" steps to reach ZZZ (2)");
-        Plan testPlan2 = new Plan(list(getPath("input-test2")));
-        System.out.println("Test plan : "+ testPlan2.countGhostsSteps()+" ghosts steps to reach Z (2)");
-        Plan plan = new Plan(list(getInputPath()));
-        System.out.println("Plan : "+ plan.countStepsToZZZ()+" steps to reach ZZZ (17263)");
-        System.out.println("Plan : "+ plan.countGhostsSteps()+" ghosts to reach **Z (14631604759649)");
+    public Plan parse(Path input) {
+        return new Plan(list(input));
+    }
+
+    // Steps to reach ZZZ : test 6, real 17263
+    @Override
+    public Long part1(Plan plan) {
+        return plan.countStepsToZZZ();
+    }
+
+    // Ghosts steps to reach **Z : test 6, real 14631604759649
+    @Override
+    public Long part2(Plan plan) {
+        return plan.countGhostsSteps();
     }
 }
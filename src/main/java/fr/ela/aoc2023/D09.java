@@ -1,12 +1,13 @@
 package fr.ela.aoc2023;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Stack;
 import java.util.stream.Collectors;
 
-public class D09 extends AoC {
+public class D09 extends AoC<List<D09.Sequence>> {
 
     public record Pair(long left, long right) {
 
@@ -49,13 +50,23 @@ public class D09 extends AoC {
     }
 
     @Override
-    public void run() {
-        Pair test = list(getTestInputPath(), Sequence::new).stream().map(Sequence::getNextHistoryValue).reduce(new Pair(0,0), Pair::add);
-        System.out.println("Test value part 1 (114) : " + test.right);
-        System.out.println("Test value part 2 (2) : " + test.left);
-
-        Pair result = list(getInputPath(), Sequence::new).stream().map(Sequence::getNextHistoryValue).reduce(new Pair(0,0), Pair::add);
-        System.out.println("Result part 1 (1884768153) : " + result.right);
-        System.out.println("Result part 2 (1031) : " + result.left);
+    public List<Sequence> parse(Path input) {
+        return list(input, Sequence::new);
+    }
+
+    Pair nextHistoryValues(List<Sequence> sequences) {
+        return sequences.stream().map(Sequence::getNextHistoryValue).reduce(new Pair(0,0), Pair::add);
+    }
+
+    // Next values : test 114, real 1884768153
+    @Override
+    public Long part1(List<Sequence> sequences) {
+        return nextHistoryValues(sequences).right;
+    }
+
+    // Previous values : test 2, real 1031
+    @Override
+    public Long part2(List<Sequence> sequences) {
+        return nextHistoryValues(sequences).left;
     }
 }
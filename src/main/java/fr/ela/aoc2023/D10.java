@@ -1,6 +1,7 @@
 package fr.ela.aoc2023;
 
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -9,7 +10,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
-public class D10 extends AoC {
+public class D10 extends AoC<D10.Grid> {
 
     Map<Pattern, Character> possible = buildPossibles();
 
@@ -202,18 +203,20 @@ public class D10 extends AoC {
 
 
     @Override
-    public void run() {
-        Grid testGrid = new Grid(list(getTestInputPath()));
-        LinkedList<Position> testLoop = testGrid.walk();
-        System.out.println("Test grid start position pipe : " + testGrid.charAt(testGrid.startPosition) + ", most distant point in loop : " + (testLoop.size() / 2));
-        Grid testGrid2 = new Grid(list(getPath("input-test2")));
-        LinkedList<Position> testLoop2 = testGrid2.walk();
-        System.out.println("Test loop points count (4) : first solution : " + testGrid2.pointsInsideLoop(testLoop2) + " Second solution : " + testGrid2.getLoopArea(testLoop2));
-
-
-        Grid grid = new Grid(list(getInputPath()));
-        LinkedList<Position> loop = grid.walk();
-        System.out.println("Grid start position pipe : " + grid.charAt(grid.startPosition) + ", most distant point in loop (6886): " + (loop.size() / 2));
-        System.out.println("Loop points count (371): first solution : " + grid.pointsInsideLoop(loop) + " Second solution : " + grid.getLoopArea(loop));
+    public Grid parse(Path input) {
+        return new Grid(list(input));
+    }
+
+    // Most distant point in loop : test 8, real 6886
+    @Override
+    public Integer part1(Grid grid) {
+        return grid.walk().size() / 2;
+    }
+
+    // Loop points count : test 4, real 371.
+    // pointsInsideLoop gives the same answer, but removes the pipes that are not part of the loop from the grid.
+    @Override
+    public Long part2(Grid grid) {
+        return grid.getLoopArea(grid.walk());
     }
 }
@@ -1,22 +1,40 @@
 package fr.ela.aoc2023;
 
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.LongStream;
 
-public class D11 extends AoC {
+public class D11 extends AoC<D11.Universe> {
 
     @Override
-    public void run() {
-        Universe test = Universe.parse(list(getTestInputPath()));
-        System.out.println("Test universe distances sum (374): " + test.expand(2).calculate());
-        System.out.println("Test universe distances sum (1030): " + test.expand(10).calculate());
-        System.out.println("Test universe distances sum (8410): " + test.expand(100).calculate());
-
-        Universe universe = Universe.parse(list(getInputPath()));
-        System.out.println("Universe distances sum (9623138): " + universe.expand(2).calculate());
-        System.out.println("Universe distances sum (726820169514): " + universe.expand(1_000_000).calculate());
+    public Universe parse(Path input) {
+        return Universe.parse(list(input), isTestInput(input));
+    }
+
+    // Distances sum : test 374, real 9623138
+    @Override
+    public Long part1(Universe universe) {
+        return universe.expand(2).calculate();
+    }
+
+    // Distances sum : test 82000210, real 726820169514
+    @Override
+    public Long part2(Universe universe) {
+        if (universe.test()) {
+            // The only answers given for the test universe are with ratios of 10 and 100.
+            check(universe, 10, 1030);
+            check(universe, 100, 8410);
+        }
+        return universe.expand(1_000_000).calculate();
+    }
+
+    private static void check(Universe universe, long ratio, long expected) {
+        long sum = universe.expand(ratio).calculate();
+        if (sum != expected) {
+            throw new IllegalStateException("Distances sum with a ratio of " + ratio + " is " + sum + " instead of " + expected);
+        }
     }
 
     public record Galaxy(long id, long x, long y) {
@@ -31,9 +49,9 @@ public class D11 extends AoC {
         }
     }
 
-    public record Universe(long width, long height, List<Galaxy> galaxies) {
+    public record Universe(long width, long height, List<Galaxy> galaxies, boolean test) {
 
-        static Universe parse(List<String> lines) {
+        static Universe parse(List<String> lines, boolean test) {
             long width = lines.get(0).length();
             long height = lines.size();
             long id = 0;
@@ -47,7 +65,7 @@ public class D11 extends AoC {
                     }
                 }
             }
-            return new Universe(width, height, gals);
+            return new Universe(width, height, gals, test);
         }
 
         long calculate() {
@@ -69,7 +87,7 @@ public class D11 extends AoC {
             List<Long> emptyLines = LongStream.range(0, height).filter(col -> galaxies.stream().noneMatch(g -> g.y == col)).boxed().toList();
             gals = gals.stream().map(g -> g.expandY(ratio, emptyLines)).toList();
 
-            return new Universe(w + emptyCols.size(), h + emptyLines.size(), gals);
+            return new Universe(w + emptyCols.size(), h + emptyLines.size(), gals, test);
         }
     }
 
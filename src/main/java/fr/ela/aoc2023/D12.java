@@ -1,15 +1,14 @@
 package fr.ela.aoc2023;
 
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.IntStream;
 
-public class D12 extends AoC {
-
-    private HashMap<HotSprings, Long> cache = new HashMap<>();
+public class D12 extends AoC<List<D12.HotSprings>> {
 
     public record HotSprings(String map, List<Integer> groups) {
 
@@ -18,79 +17,365 @@ public class D12 extends AoC {
             return new HotSprings(parts[0], Arrays.stream(parts[1].split(",")).map(Integer::parseInt).toList());
         }
 
-        HotSprings unfold() {
+        // The row actually unfolded : only used to check unfoldedArrangements, which never builds it.
+        HotSprings unfold(int copies) {
             List<String> unfoldedMap = new ArrayList<>();
-            List<Integer> unfoldedGroups = new ArrayList<>(groups.size() * 5);
-            IntStream.range(0, 5).forEach(i -> {
+            List<Integer> unfoldedGroups = new ArrayList<>(groups.size() * copies);
+            IntStream.range(0, copies).forEach(i -> {
                 unfoldedGroups.addAll(groups);
                 unfoldedMap.add(map);
             });
             return new HotSprings(String.join("?", unfoldedMap), unfoldedGroups);
         }
 
-        HotSprings removeFirstSpring() {
-            return new HotSprings(map.substring(1), groups);
+        byte[] row() {
+            return map.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        int[] groupSizes() {
+            return groups.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        /**
+         * Arrangements of the row unfolded the given number of times, without building it. Throws an ArithmeticException
+         * when the count overflows a long.
+         */
+        long unfoldedArrangements(int copies) {
+            return new UnfoldedArrangements(row(), groupSizes()).count(copies, new LongCounts()).total();
+        }
+
+        BigInteger exactUnfoldedArrangements(int copies) {
+            return new UnfoldedArrangements(row(), groupSizes()).count(copies, new BigCounts()).total;
+        }
+    }
+
+    /**
+     * Counts of the states between two copies, with the counts of the next copy being accumulated : in longs for the
+     * usual rows, in BigIntegers for the exact counts.
+     */
+    interface Counts {
+        void init(int size);
+
+        boolean isSet(int index);
+
+        // next[to] += current[from] * ways
+        void addProduct(int to, int from, long ways);
+
+        // The counts of the next copy become the current ones, and the current ones in [from, to) are cleared.
+        void swap(int from, int to);
+
+        // Keeps the count of the final state, zero if it was not reached.
+        void finish(int index);
+    }
+
+    static class LongCounts implements Counts {
+        private long[] counts;
+        private long[] next;
+        private long total;
+
+        @Override
+        public void init(int size) {
+            counts = new long[size];
+            next = new long[size];
+            counts[0] = 1;
+        }
+
+        @Override
+        public boolean isSet(int index) {
+            return counts[index] != 0;
         }
 
-        HotSprings replaceFirstSpring(char c) {
-            return new HotSprings(c + map.substring(1), groups);
+        @Override
+        public void addProduct(int to, int from, long ways) {
+            next[to] = Math.addExact(next[to], Math.multiplyExact(counts[from], ways));
         }
 
-        Optional<HotSprings> maybeRemoveGroup() {
-            if (groups.isEmpty()) {
-                return Optional.empty();
+        @Override
+        public void swap(int from, int to) {
+            Arrays.fill(counts, from, to, 0);
+            long[] tmp = counts;
+            counts = next;
+            next = tmp;
+        }
+
+        @Override
+        public void finish(int index) {
+            total = index < 0 ? 0 : counts[index];
+        }
+
+        long total() {
+            return total;
+        }
+    }
+
+    static class BigCounts implements Counts {
+        private BigInteger[] counts;
+        private BigInteger[] next;
+        private BigInteger total;
+
+        @Override
+        public void init(int size) {
+            counts = new BigInteger[size];
+            next = new BigInteger[size];
+            counts[0] = BigInteger.ONE;
+        }
+
+        @Override
+        public boolean isSet(int index) {
+            return counts[index] != null;
+        }
+
+        @Override
+        public void addProduct(int to, int from, long ways) {
+            BigInteger product = counts[from].multiply(BigInteger.valueOf(ways));
+            next[to] = next[to] == null ? product : next[to].add(product);
+        }
+
+        @Override
+        public void swap(int from, int to) {
+            Arrays.fill(counts, from, to, null);
+            BigInteger[] tmp = counts;
+            counts = next;
+            next = tmp;
+        }
+
+        @Override
+        public void finish(int index) {
+            total = index < 0 || counts[index] == null ? BigInteger.ZERO : counts[index];
+        }
+    }
+
+    /**
+     * Counts the arrangements of a row unfolded into copies joined by '?', copy by copy.
+     * Between two copies, a state is (groups done, damaged springs of the current group). Reading a copy and the spring
+     * after it ('?', or an extra '.' after the last copy) moves a state forward by some groups, in a number of ways that
+     * only depends on the state's place in the cycle of groups : these transfers are computed once per row, then applied
+     * to the counts of the states for each copy. States which cannot fit the groups left in the springs left are dropped.
+     */
+    static class UnfoldedArrangements {
+        private final byte[] row;
+        private final int[] groups;
+        private final int runs;
+        private final int[] groupsSum;
+
+        UnfoldedArrangements(byte[] row, int[] groups) {
+            this.row = row;
+            this.groups = groups;
+            this.runs = Arrays.stream(groups).max().orElse(0) + 1;
+            this.groupsSum = new int[groups.length + 1];
+            for (int i = 0; i < groups.length; i++) {
+                groupsSum[i + 1] = groupsSum[i] + groups[i];
             }
-            int nb = groups.get(0);
-            if (map.length() < nb || map.chars().limit(nb).anyMatch(c -> c == '.')) {
-                return Optional.empty();
+        }
+
+        // Transfer from the state (done groups of a cycle position, run) : groups done while reading, run after, ways.
+        private record Transfer(int[] done, int[] runs, long[] ways) {
+        }
+
+        // Transfers are computed on first use : most of the (cycle position, run) states are never reached.
+        private Transfer transfer(Transfer[] transfers, byte separator, int first, int run) {
+            int index = first * runs + run;
+            if (transfers[index] == null) {
+                transfers[index] = computeTransfer(separator, first, run);
             }
-            if (nb == map.length()) {
-                if (groups.size() == 1) {
-                    return Optional.of(new HotSprings("", List.of()));
-                } else {
-                    return Optional.empty();
+            return transfers[index];
+        }
+
+        private Transfer computeTransfer(byte separator, int first, int run) {
+            int length = row.length + 1;
+            // At most a group done per spring read.
+            long[] ways = new long[(length + 2) * runs];
+            long[] next = new long[ways.length];
+            ways[run] = 1;
+            // Groups done by the states with some ways.
+            int low = 0;
+            int high = 0;
+            for (int i = 0; i < length && low <= high; i++) {
+                byte spring = i < row.length ? row[i] : separator;
+                Arrays.fill(next, low * runs, (high + 2) * runs, 0);
+                int nextLow = Integer.MAX_VALUE;
+                int nextHigh = -1;
+                for (int done = low; done <= high; done++) {
+                    int size = groups[(first + done) % groups.length];
+                    for (int r = 0; r <= size; r++) {
+                        long w = ways[done * runs + r];
+                        if (w == 0) {
+                            continue;
+                        }
+                        if (spring != '#' && r == 0) {
+                            next[done * runs] = Math.addExact(next[done * runs], w);
+                            nextLow = Math.min(nextLow, done);
+                            nextHigh = Math.max(nextHigh, done);
+                        } else if (spring != '#' && r == size) {
+                            next[(done + 1) * runs] = Math.addExact(next[(done + 1) * runs], w);
+                            nextLow = Math.min(nextLow, done + 1);
+                            nextHigh = Math.max(nextHigh, done + 1);
+                        }
+                        if (spring != '.' && r < size) {
+                            next[done * runs + r + 1] = Math.addExact(next[done * runs + r + 1], w);
+                            nextLow = Math.min(nextLow, done);
+                            nextHigh = Math.max(nextHigh, done);
+                        }
+                    }
                 }
+                Arrays.fill(ways, low * runs, (high + 1) * runs, 0);
+                long[] tmp = ways;
+                ways = next;
+                next = tmp;
+                low = nextLow;
+                high = nextHigh;
             }
-            if (map.charAt(nb) == '#') {
-                return Optional.empty();
+            int count = (int) Arrays.stream(ways).filter(w -> w != 0).count();
+            Transfer transfer = new Transfer(new int[count], new int[count], new long[count]);
+            for (int i = 0, t = 0; i < ways.length; i++) {
+                if (ways[i] != 0) {
+                    transfer.done[t] = i / runs;
+                    transfer.runs[t] = i % runs;
+                    transfer.ways[t++] = ways[i];
+                }
             }
-            return Optional.of(new HotSprings(map.substring(nb + 1), groups.subList(1, groups.size())));
+            return transfer;
         }
-    }
 
-    long countPermutations(HotSprings hs) {
-        if (hs.map.isEmpty()) {
-            return hs.groups.isEmpty() ? 1 : 0;
+        // Damaged springs of the groups from index 'from' (of the unfolded row) to 'to' excluded.
+        private long damaged(long from, long to) {
+            return sum(to) - sum(from);
         }
-        if (cache.containsKey(hs)) {
-            return cache.get(hs);
+
+        private long sum(long groupCount) {
+            return groupCount / groups.length * groupsSum[groups.length] + groupsSum[(int) (groupCount % groups.length)];
         }
 
-        char firstChar = hs.map.charAt(0);
-        long permutations = switch (firstChar) {
-            case '.' -> countPermutations(hs.removeFirstSpring());
-            case '?' -> countPermutations(hs.replaceFirstSpring('.')) + countPermutations(hs.replaceFirstSpring('#'));
-            case '#' -> hs.maybeRemoveGroup().map(this::countPermutations).orElse(0L);
-            default -> throw new IllegalArgumentException();
-        };
-        cache.put(hs, permutations);
-        return permutations;
+        // Springs needed after the state (done, run) : the rest of the current group, the next groups and the '.' between them.
+        private long needed(int done, int run, int total) {
+            return done == total ? 0 : damaged(done, total) - run + total - done - 1;
+        }
+
+        <C extends Counts> C count(int copies, C counts) {
+            if (groups.length == 0) {
+                throw new IllegalArgumentException("No groups");
+            }
+            Transfer[] joined = new Transfer[groups.length * runs];
+            Transfer[] last = new Transfer[groups.length * runs];
+            int total = groups.length * copies;
+            counts.init((total + 1) * runs);
+            // Groups done by the states with a count.
+            int low = 0;
+            int high = 0;
+            for (int copy = 1; copy <= copies; copy++) {
+                Transfer[] transfers = copy == copies ? last : joined;
+                byte separator = copy == copies ? (byte) '.' : (byte) '?';
+                long left = (long) (copies - copy) * (row.length + 1);
+                int nextLow = Integer.MAX_VALUE;
+                int nextHigh = -1;
+                for (int done = low; done <= high; done++) {
+                    int cycle = done % groups.length;
+                    for (int run = 0; run <= groups[cycle]; run++) {
+                        int from = done * runs + run;
+                        if (!counts.isSet(from)) {
+                            continue;
+                        }
+                        Transfer transfer = transfer(transfers, separator, cycle, run);
+                        for (int i = 0; i < transfer.ways.length; i++) {
+                            int to = done + transfer.done[i];
+                            int toRun = transfer.runs[i];
+                            if (to > total || (to == total && toRun > 0) || needed(to, toRun, total) > left) {
+                                continue;
+                            }
+                            counts.addProduct(to * runs + toRun, from, transfer.ways[i]);
+                            nextLow = Math.min(nextLow, to);
+                            nextHigh = Math.max(nextHigh, to);
+                        }
+                    }
+                }
+                counts.swap(low * runs, (high + 1) * runs);
+                if (nextHigh < 0) {
+                    counts.finish(-1);
+                    return counts;
+                }
+                low = nextLow;
+                high = nextHigh;
+            }
+            counts.finish(total * runs);
+            return counts;
+        }
     }
 
+    /**
+     * Counts the arrangements of a row of springs with groups of damaged ones, from the end of the row :
+     * table[p * (groups + 1) + g] is the number of arrangements of row[p..] with groups[g..].
+     * nextOperational[p] is the first '.' at or after p, so whether a group fits at p is checked in constant time.
+     * The tables are kept from a row to the next one, unless they are larger than MAX_KEPT_CELLS : an instance per thread
+     * then holds a bounded amount of memory, whatever the rows it counted.
+     */
+    static class Arrangements {
+        static final int MAX_KEPT_CELLS = 1 << 16;
+
+        private long[] ways = new long[0];
+        private int[] nextOperational = new int[0];
+
+        long count(byte[] row, int[] groups) {
+            int length = row.length;
+            int width = groups.length + 1;
+            long[] table = ways;
+            if (table.length < (length + 1) * width) {
+                table = new long[(length + 1) * width];
+                if (table.length <= MAX_KEPT_CELLS) {
+                    ways = table;
+                }
+            }
+            int[] next = nextOperational;
+            if (next.length < length + 1) {
+                next = new int[length + 1];
+                if (next.length <= MAX_KEPT_CELLS) {
+                    nextOperational = next;
+                }
+            }
+            next[length] = length;
+            for (int p = length - 1; p >= 0; p--) {
+                next[p] = row[p] == '.' ? p : next[p + 1];
+            }
+            Arrays.fill(table, length * width, length * width + groups.length, 0);
+            table[length * width + groups.length] = 1;
+            for (int p = length - 1; p >= 0; p--) {
+                byte spring = row[p];
+                for (int g = 0; g <= groups.length; g++) {
+                    long count = spring == '#' ? 0 : table[(p + 1) * width + g];
+                    if (spring != '.' && g < groups.length) {
+                        int end = p + groups[g];
+                        if (end <= length && next[p] >= end && (end == length || row[end] != '#')) {
+                            count += table[Math.min(end + 1, length) * width + g + 1];
+                        }
+                    }
+                    table[p * width + g] = count;
+                }
+            }
+            return table[0];
+        }
+    }
+
+    // Lines are counted in parallel, each thread with its own tables.
+    private static final ThreadLocal<Arrangements> ARRANGEMENTS = ThreadLocal.withInitial(Arrangements::new);
+
+    static long count(HotSprings springs) {
+        return ARRANGEMENTS.get().count(springs.row(), springs.groupSizes());
+    }
+
+    @Override
+    public List<HotSprings> parse(Path input) {
+        return list(input, HotSprings::parse);
+    }
+
+    // Number of permutations : test 21, real 7402
+    @Override
+    public Long part1(List<HotSprings> springs) {
+        return springs.parallelStream().mapToLong(D12::count).sum();
+    }
 
+    // Number of unfolded permutations : test 525152, real 3384337640277
     @Override
-    public void run() {
-        List<HotSprings> testSprings = list(getTestInputPath(), HotSprings::parse);
-        long testPart1 = testSprings.stream().mapToLong(this::countPermutations).sum();
-        System.out.println("Test number of permutations (21): " + testPart1);
-        long testPart2 = testSprings.stream().map(HotSprings::unfold).mapToLong(this::countPermutations).sum();
-        System.out.println("Test number of unfolded permutations (525152): " + testPart2);
-
-        List<HotSprings> springs = list(getInputPath(), HotSprings::parse);
-        long part1 = springs.stream().mapToLong(this::countPermutations).sum();
-        System.out.println("Number of permutations (7402): " + part1);
-        long part2 = springs.stream().map(HotSprings::unfold).mapToLong(this::countPermutations).sum();
-        System.out.println("Number of unfolded permutations (3384337640277): " + part2);
+    public Long part2(List<HotSprings> springs) {
+        return springs.parallelStream().mapToLong(s -> s.unfoldedArrangements(5)).sum();
     }
 
 
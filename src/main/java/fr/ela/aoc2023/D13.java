@@ -1,12 +1,14 @@
 package fr.ela.aoc2023;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
-public class D13 extends AoC {
+public class D13 extends AoC<List<D13.Reflections>> {
 
     public enum Axis {
         HORIZONTAL, VERTICAL;
@@ -112,19 +114,35 @@ public class D13 extends AoC {
         }
     }
 
+    // Reflections of a pattern, without and with its smudge.
+    record Reflections(Reflection clean, Reflection smudged) {
+        Reflections(LandPattern pattern) {
+            this(pattern.findReflection(), pattern.findFudgeReflection());
+        }
+    }
+
+    long score(List<Reflections> reflections, Function<Reflections, Reflection> reflection) {
+        return reflections.stream().map(reflection).mapToLong(Reflection::score).sum();
+    }
+
+    // Blocks are read one at a time and only their reflections are kept : a single pattern is in memory at once.
+    @Override
+    public List<Reflections> parse(Path input) {
+        try (Stream<List<String>> blocks = streamOnEmptyLines(input)) {
+            return blocks.map(LandPattern::new).map(Reflections::new).toList();
+        }
+    }
+
+    // Score : test 405, real 27300
+    @Override
+    public Long part1(List<Reflections> reflections) {
+        return score(reflections, Reflections::clean);
+    }
+
+    // Score with smudges : test 400, real 29276
     @Override
-    public void run() {
-        List<LandPattern> testPatterns = splitOnEmptyLines(getTestInputPath()).stream().map(LandPattern::new).toList();
-        long testScore = testPatterns.stream().map(LandPattern::findReflection).mapToLong(Reflection::score).sum();
-        System.out.println("Test score part 1 (405) : "+testScore);
-        long testScore2 = testPatterns.stream().map(LandPattern::findFudgeReflection).mapToLong(Reflection::score).sum();
-        System.out.println("Test score part 1 (400) : "+testScore2);
-
-        List<LandPattern> patterns = splitOnEmptyLines(getInputPath()).stream().map(LandPattern::new).toList();
-        long score = patterns.stream().map(LandPattern::findReflection).mapToLong(Reflection::score).sum();
-        System.out.println("Score part 1 (27300) : "+score);
-        long score2 = patterns.stream().map(LandPattern::findFudgeReflection).mapToLong(Reflection::score).sum();
-        System.out.println("Score part 2 (29276) : "+score2);
+    public Long part2(List<Reflections> reflections) {
+        return score(reflections, Reflections::smudged);
     }
 
 
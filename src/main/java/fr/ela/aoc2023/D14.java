@@ -1,118 +1,160 @@
 package fr.ela.aoc2023;
 
+import fr.ela.aoc2023.utils.LongIntMap;
+
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.function.UnaryOperator;
-
-public class D14 extends AoC {
-
-    record State(String platform) {
-    }
-
-    record Position(int x, int y) {
-        Position north() {
-            return new Position(x, y - 1);
-        }
-
-        Position south() {
-            return new Position(x, y + 1);
-        }
 
-        Position west() {
-            return new Position(x - 1, y);
-        }
-
-        Position east() {
-            return new Position(x + 1, y);
-        }
-    }
+public class D14 extends AoC<D14.Platform> {
 
+    // Spin cycle order.
     public enum Direction {
-        NORTH(Position::north, Position::south, Comparator.comparing(Position::y)),
-        WEST(Position::west, Position::east, Comparator.comparing(Position::x)),
-        SOUTH(Position::south, Position::north, Comparator.comparing(Position::y).reversed()),
-        EAST(Position::east, Position::west, Comparator.comparing(Position::x).reversed());
-
-        private final UnaryOperator<Position> direction;
-        private final UnaryOperator<Position> opposite;
-        private final Comparator<Position> sort;
-
-        Direction(UnaryOperator<Position> direction, UnaryOperator<Position> opposite, Comparator<Position> sort) {
-            this.direction = direction;
-            this.opposite = opposite;
-            this.sort = sort;
-        }
-    }
-
-    record Rock(char rock) {
-
+        NORTH, WEST, SOUTH, EAST
     }
 
+    /**
+     * Rocks are bits : each row holds a bit per column, each column a bit per row, in long words.
+     * Cube shaped rocks split the rows and columns in segments. Tilting a segment counts its round rocks, then packs
+     * them against the side of the tilt, and the other view is rebuilt from the moved rocks.
+     * The fingerprint is a Zobrist hash of the round rocks : the xor of the keys of their cells, updated by each moved rock.
+     */
     public class Platform {
 
         final int width;
         final int height;
-        final Map<Position, Rock> rocks = new HashMap<>();
+        private final long[][] roundRows;
+        private final long[][] roundColumns;
+        // (start, end) of the runs of cells between cube shaped rocks, for each row and each column. They never change.
+        private final int[][] rowSegments;
+        private final int[][] columnSegments;
+        private final long[][] cubeRows;
+        private long fingerprint;
 
-        boolean available(Position position) {
-            return !rocks.containsKey(position) && position.x >= 0 && position.y >= 0 && position.x < width && position.y < height;
+        Platform(Platform other) {
+            height = other.height;
+            width = other.width;
+            roundRows = Arrays.stream(other.roundRows).map(long[]::clone).toArray(long[][]::new);
+            roundColumns = Arrays.stream(other.roundColumns).map(long[]::clone).toArray(long[][]::new);
+            rowSegments = other.rowSegments;
+            columnSegments = other.columnSegments;
+            cubeRows = other.cubeRows;
+            fingerprint = other.fingerprint;
         }
 
-
         public Platform(List<String> lines) {
             height = lines.size();
             width = lines.get(0).length();
+            roundRows = new long[height][words(width)];
+            roundColumns = new long[width][words(height)];
+            cubeRows = new long[height][words(width)];
+            long[][] cubeColumns = new long[width][words(height)];
             for (int y = 0; y < height; y++) {
                 String line = lines.get(y);
                 for (int x = 0; x < width; x++) {
-                    char c = line.charAt(x);
-                    if (c != '.') {
-                        rocks.put(new Position(x, y), new Rock(line.charAt(x)));
+                    switch (line.charAt(x)) {
+                        case 'O' -> {
+                            set(roundRows[y], x);
+                            set(roundColumns[x], y);
+                            fingerprint ^= key(y * width + x);
+                        }
+                        case '#' -> {
+                            set(cubeRows[y], x);
+                            set(cubeColumns[x], y);
+                        }
+                        case '.' -> {
+                        }
+                        default -> throw new IllegalArgumentException("Unknown rock " + line.charAt(x));
                     }
                 }
             }
+            rowSegments = Arrays.stream(cubeRows).map(cubes -> segments(cubes, width)).toArray(int[][]::new);
+            columnSegments = Arrays.stream(cubeColumns).map(cubes -> segments(cubes, height)).toArray(int[][]::new);
         }
 
-        Position slide(Position pos, UnaryOperator<Position> direction, UnaryOperator<Position> opposite) {
-            Position next = direction.apply(pos);
-            while (available(next)) {
-                next = direction.apply(next);
+        private static int[] segments(long[] cubes, int length) {
+            int[] segments = new int[length + 1];
+            int count = 0;
+            int start = 0;
+            for (int i = 0; i <= length; i++) {
+                if (i == length || isSet(cubes, i)) {
+                    if (i > start) {
+                        segments[count++] = start;
+                        segments[count++] = i;
+                    }
+                    start = i + 1;
+                }
             }
-            return opposite.apply(next);
+            return Arrays.copyOf(segments, count);
         }
 
         public void tilt(Direction direction) {
-            List<Map.Entry<Position, Rock>> rollingRocks = rocks.entrySet().stream().filter(e -> e.getValue().rock == 'O')
-                    .sorted(Map.Entry.comparingByKey(direction.sort)).toList();
-            for (var e : rollingRocks) {
-                Position pos = e.getKey();
-                Position north = slide(pos, direction.direction, direction.opposite);
-                Rock rock = rocks.remove(pos);
-                rocks.put(north, rock);
+            switch (direction) {
+                case NORTH -> slide(roundColumns, columnSegments, roundRows, false, true);
+                case SOUTH -> slide(roundColumns, columnSegments, roundRows, false, false);
+                case WEST -> slide(roundRows, rowSegments, roundColumns, true, true);
+                case EAST -> slide(roundRows, rowSegments, roundColumns, true, false);
+            }
+        }
+
+        // The lines are the rows, or the columns. The fingerprint is updated with the cells whose bit changes.
+        private void slide(long[][] lines, int[][] segments, long[][] crossLines, boolean rows, boolean toStart) {
+            for (int i = 0; i < lines.length; i++) {
+                long[] bits = lines[i];
+                int[] lineSegments = segments[i];
+                for (int s = 0; s < lineSegments.length; s += 2) {
+                    int start = lineSegments[s];
+                    int end = lineSegments[s + 1];
+                    int rocks = count(bits, start, end);
+                    if (rocks > 0 && rocks < end - start) {
+                        int from = toStart ? start : end - rocks;
+                        for (int w = start >>> 6; w <= (end - 1) >>> 6; w++) {
+                            long segment = mask(w, start, end);
+                            long packed = w < from >>> 6 || w > (from + rocks - 1) >>> 6 ? 0 : mask(w, from, from + rocks);
+                            long word = (bits[w] & ~segment) | (packed & segment);
+                            for (long changed = bits[w] ^ word; changed != 0; changed &= changed - 1) {
+                                int bit = w * Long.SIZE + Long.numberOfTrailingZeros(changed);
+                                fingerprint ^= key(rows ? i * width + bit : bit * width + i);
+                            }
+                            bits[w] = word;
+                        }
+                    }
+                }
+            }
+            for (long[] crossLine : crossLines) {
+                Arrays.fill(crossLine, 0);
+            }
+            for (int i = 0; i < lines.length; i++) {
+                long[] bits = lines[i];
+                for (int w = 0; w < bits.length; w++) {
+                    for (long word = bits[w]; word != 0; word &= word - 1) {
+                        set(crossLines[w * Long.SIZE + Long.numberOfTrailingZeros(word)], i);
+                    }
+                }
             }
-            //System.out.println("Tilting "+direction+"\n"+this);
         }
 
-        public State step() {
+        public void step() {
             for (Direction direction : Direction.values()) {
                 tilt(direction);
             }
-            return new State(toString());
         }
 
         long getTotalLoad() {
-            return rocks.entrySet().stream().filter(e -> e.getValue().rock == 'O')
-                    .mapToLong(e -> (height - e.getKey().y))
-                    .sum();
+            long load = 0;
+            for (int y = 0; y < height; y++) {
+                long rocks = 0;
+                for (long word : roundRows[y]) {
+                    rocks += Long.bitCount(word);
+                }
+                load += rocks * (height - y);
+            }
+            return load;
         }
 
         char get(int x, int y) {
-            Rock dot = new Rock('.');
-            return rocks.getOrDefault(new Position(x, y), dot).rock;
+            return isSet(roundRows[y], x) ? 'O' : isSet(cubeRows[y], x) ? '#' : '.';
         }
 
         public String toString() {
@@ -127,37 +169,99 @@ public class D14 extends AoC {
             return String.join("\n", sb);
         }
 
+        /**
+         * Spins until the platform comes back to a previous state, then reads the load after the last spin in the cycle.
+         * Only the fingerprint of each spin is kept, so seen grows with the spins before the cycle, not with the steps.
+         * When a fingerprint comes back after some spins, the cycle is confirmed by spinning as much again from a copy of
+         * the rocks, recording the load of each spin of the cycle : a hash collision just goes on spinning.
+         */
         public long getLoad(int steps) {
-            List<State> states = new ArrayList<>();
-            states.add(step());
-            int count = 1;
-            while (count < steps && !states.contains(step())) {
-                states.add(new State(toString()));
-                count++;
+            LongIntMap seen = new LongIntMap();
+            int spins = 0;
+            while (spins < steps) {
+                step();
+                spins++;
+                int previous = seen.getOrDefault(fingerprint, -1);
+                seen.put(fingerprint, spins);
+                int length = spins - previous;
+                if (previous >= 0 && spins + length <= steps) {
+                    int start = spins;
+                    long[][] rocks = Arrays.stream(roundRows).map(long[]::clone).toArray(long[][]::new);
+                    // Load after start + i spins.
+                    long[] cycleLoads = new long[length];
+                    for (int i = 0; i < length; i++) {
+                        cycleLoads[i] = getTotalLoad();
+                        step();
+                        spins++;
+                    }
+                    if (Arrays.deepEquals(rocks, roundRows)) {
+                        return cycleLoads[(steps - start) % length];
+                    }
+                }
             }
-            int offset = states.indexOf(new State(toString()));
-            int cycleLength = count - offset;
-            int remaining = (steps - 1 - offset) % cycleLength;
-            State end = states.get(offset + remaining);
-            Platform platform = new Platform(Arrays.stream(end.platform.split("\n")).toList());
-            return platform.getTotalLoad();
+            return getTotalLoad();
+        }
+    }
+
+    // Zobrist key of a cell : the splitmix64 finalizer of its index, so that the keys of the cells look independent.
+    private static long key(int cell) {
+        long z = (cell + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int words(int bits) {
+        return (bits + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    // Bits of the word w in [from, to), w being one of the words of the range.
+    private static long mask(int w, int from, int to) {
+        long mask = -1L;
+        if (w == from >>> 6) {
+            mask &= -1L << from;
+        }
+        if (w == (to - 1) >>> 6) {
+            mask &= -1L >>> -to;
+        }
+        return mask;
+    }
+
+    private static int count(long[] bits, int from, int to) {
+        int count = 0;
+        for (int w = from >>> 6; w <= (to - 1) >>> 6; w++) {
+            count += Long.bitCount(bits[w] & mask(w, from, to));
         }
+        return count;
+    }
+
+    @Override
+    public Platform parse(Path input) {
+        return new Platform(list(input));
+    }
+
+    // Tilting moves the rocks : both parts work on a copy of the platform.
+
+    // Load : test 136, real 105784
+    @Override
+    public Long part1(Platform platform) {
+        Platform tilted = new Platform(platform);
+        tilted.tilt(Direction.NORTH);
+        return tilted.getTotalLoad();
     }
 
+    // Load after spin cycles : test 64, real 91286
     @Override
-    public void run() {
-        Platform test = new Platform(list(getTestInputPath()));
-        test.tilt(Direction.NORTH);
-        System.out.println("Test Load part 1 (136) : " + test.getTotalLoad());
-        long testPart2 = new Platform(list(getTestInputPath())).getLoad(1_000_000_000);
-        System.out.println("Test Load part 2 (64) : " + testPart2);
-
-        Platform platform = new Platform(list(getInputPath()));
-        platform.tilt(Direction.NORTH);
-        System.out.println("Load part 1 (105784) : " + platform.getTotalLoad());
-        platform = new Platform(list(getInputPath()));
-        long part2 = platform.getLoad(1_000_000_000);
-        System.out.println("Load part 2 (91286) : " + part2);
+    public Long part2(Platform platform) {
+        return new Platform(platform).getLoad(1_000_000_000);
     }
 }
 
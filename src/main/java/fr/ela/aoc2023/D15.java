@@ -1,5 +1,9 @@
 package fr.ela.aoc2023;
 
+import fr.ela.aoc2023.utils.MappedInput;
+import fr.ela.aoc2023.utils.MappedInput.ByteSlice;
+
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -9,7 +13,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
-public class D15 extends AoC {
+public class D15 extends AoC<MappedInput> {
 
 
     //Determine the ASCII code for the current character of the string.
@@ -86,26 +90,47 @@ public class D15 extends AoC {
 
     }
 
-    public long part1(String value) {
+    public long hashSum(String value) {
         return Arrays.stream(value.split(",")).mapToLong(D15::hash).sum();
     }
 
-    public Boxes parse(String value) {
+    // Same as hashSum, straight on the mapped bytes : no decoding, no split.
+    public long hashSum(ByteSlice value) {
+        long sum = 0;
+        int current = 0;
+        for (int i = 0; i < value.length(); i++) {
+            byte c = value.byteAt(i);
+            if (c == ',') {
+                sum += current;
+                current = 0;
+            } else {
+                current = ((current + c) * 17) % 256;
+            }
+        }
+        return sum + current;
+    }
+
+    public Boxes fillBoxes(String value) {
         Boxes boxes = new Boxes();
         Arrays.stream(value.split(",")).forEach(boxes::compute);
         return boxes;
     }
 
     @Override
-    public void run() {
-        System.out.println("Test Initialisation sequence hash (1320): " + part1(readFile(getTestInputPath())));
-        Boxes testBoxes = parse(readFile(getTestInputPath()));
-        System.out.println("Test Focusing Power (145): " + testBoxes.focusingPower());
+    public MappedInput parse(Path input) {
+        return map(input);
+    }
 
-        System.out.println("Initialisation sequence hash (507666): " + part1(readFile(getInputPath())));
-        Boxes boxes = parse(readFile(getInputPath()));
-        System.out.println("Focusing Power (233537): " + boxes.focusingPower());
+    // Initialisation sequence hash : test 1320, real 507666
+    @Override
+    public Long part1(MappedInput sequence) {
+        return hashSum(sequence.line(0));
+    }
 
+    // Focusing power : test 145, real 233537
+    @Override
+    public Long part2(MappedInput sequence) {
+        return fillBoxes(sequence.line(0).toString()).focusingPower();
     }
 }
 
@@ -1,5 +1,9 @@
 package fr.ela.aoc2023;
 
+import fr.ela.aoc2023.utils.GridPositionSet;
+
+import java.nio.file.Path;
+import java.util.BitSet;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -12,7 +16,7 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.IntStream;
 
-public class D16 extends AoC {
+public class D16 extends AoC<D16.Grid> {
 
     record State(Position position, Direction direction) {
     }
@@ -99,30 +103,38 @@ public class D16 extends AoC {
             return energize(new State(new Position(0, 0), Direction.EAST));
         }
         long energize(State initial) {
-            Set<State> states = energize(initial, new HashSet<>());
-            return states.stream().map(s -> s.position).distinct().count();
+            BitSet visited = new BitSet(width * height * 4);
+            GridPositionSet energized = new GridPositionSet(width, height);
+            energize(initial, visited, energized);
+            return energized.size();
+        }
+
+        // One bit per cell and direction.
+        int index(State state) {
+            return ((state.position.y * width + state.position.x) << 2) | state.direction.ordinal();
         }
-        Set<State> energize(State initial, Set<State> visited) {
+
+        void energize(State initial, BitSet visited, GridPositionSet energized) {
 
             Deque<State> stack = new LinkedList<>();
-            while (!visited.contains(initial)) {
+            while (!visited.get(index(initial))) {
                 List<State> nextStates = next(initial);
-                visited.add(initial);
+                visited.set(index(initial));
+                energized.add(initial.position.x, initial.position.y);
                 if (nextStates.isEmpty()) {
                     break;
                 }
                 initial = nextStates.get(0);
                 if (nextStates.size() == 2) {
                     State other = nextStates.get(1);
-                    if (!visited.contains(other)) {
+                    if (!visited.get(index(other))) {
                         stack.push(other);
                     }
                 }
             }
             while (!stack.isEmpty()) {
-                energize(stack.pop(), visited);
+                energize(stack.pop(), visited, energized);
             }
-            return visited;
         }
 
         Set<State> startingPositions() {
@@ -148,16 +160,20 @@ public class D16 extends AoC {
     }
 
     @Override
-    public void run() {
-        Grid testGrid = new Grid(list(getTestInputPath()));
-        long testEnergized = testGrid.energize();
-        System.out.println("Test Grid energized Tiles count (46) : " + testEnergized);
-        System.out.println("Test Grid max energy (51) : " + testGrid.maxEnergy());
-        Grid grid = new Grid(list(getInputPath()));
-        long energized = grid.energize();
-        System.out.println("Energized Tiles count (7199) : " + energized);
-        System.out.println("Test Grid max energy (7438) : " + grid.maxEnergy());
+    public Grid parse(Path input) {
+        return new Grid(list(input));
+    }
 
+    // Energized tiles count : test 46, real 7199
+    @Override
+    public Long part1(Grid grid) {
+        return grid.energize();
+    }
+
+    // Max energy : test 51, real 7438
+    @Override
+    public Long part2(Grid grid) {
+        return grid.maxEnergy();
     }
 }
 
@@ -1,17 +1,20 @@
 package fr.ela.aoc2023;
 
-import fr.ela.aoc2023.utils.Walker;
 import fr.ela.aoc2023.utils.Direction;
 import fr.ela.aoc2023.utils.Grid;
-import fr.ela.aoc2023.utils.Path;
+import fr.ela.aoc2023.utils.GridStateEncoder;
+import fr.ela.aoc2023.utils.LongGrid;
+import fr.ela.aoc2023.utils.LongWalker;
+import fr.ela.aoc2023.utils.MappedInput;
 import fr.ela.aoc2023.utils.Position;
+import fr.ela.aoc2023.utils.SearchListener;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-public class D17 extends AoC {
+public class D17 extends AoC<D17.City> {
 
     public record Block(Position position, Direction direction, int steps) {
         Block(int x, int y, Direction direction, int steps) {
@@ -39,28 +42,90 @@ public class D17 extends AoC {
             }
             return blocks;
         }
+
+        // Blocks from which next (or ultraNext) leads to this one : the way back, for bidirectional searches.
+        List<Block> previous(boolean ultra) {
+            Position from = direction.opposite().move(position);
+            if (steps > 0) {
+                return List.of(new Block(from, direction, steps - 1));
+            }
+            List<Block> blocks = new ArrayList<>();
+            for (int s = ultra ? 3 : 0; s < (ultra ? 10 : 3); s++) {
+                blocks.add(new Block(from, direction.left(), s));
+                blocks.add(new Block(from, direction.right(), s));
+            }
+            return blocks;
+        }
     }
 
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // -Dd17.engine=SEQUENTIAL, PARALLEL or CROSS_CHECK solves with that LongWalker engine, ASTAR with the A* search,
+    // instead of the bidirectional search.
+    private static final String ENGINE = System.getProperty("d17.engine");
+
+    // Bucket width of the parallel engine : the highest heat loss of a block.
+    private static final long DELTA = 9;
+
     public static class City {
-        private final Grid<Long> heatLossGrid;
+        private final LongGrid heatLossGrid;
 
-        public City(List<String> lines) {
-            heatLossGrid = Grid.parseCharactersGrid(lines, c -> c == '.' ? null : (long) (c - '0'));
+        public City(MappedInput input) {
+            heatLossGrid = Grid.parseLongGrid(input, c -> c - '0');
         }
 
         public boolean isExit(Block block) {
             return heatLossGrid.isBottomRightCorner(block.position);
         }
 
-        public Path<Block, Long> findLessHeatLosingPath(boolean ultra) {
+        private LongWalker<Block> walker(boolean ultra) {
             Function<Block, List<Block>> nextNodes = ultra ? Block::ultraNext : Block::next;
             nextNodes = nextNodes.andThen(l -> l.stream().filter(b -> heatLossGrid.inBounds(b.position)).toList());
 
-            Walker<Block, Long> walker = Walker.longWalker(nextNodes, n -> heatLossGrid.get(n.position()));
-            List<Block> starts = List.of(
+            GridStateEncoder<Block> encoder = new GridStateEncoder<>(heatLossGrid, ultra ? 10 : 3, Block::position, Block::direction, Block::steps, Block::new);
+            return new LongWalker<>(nextNodes, n -> heatLossGrid.getLong(n.position()), encoder);
+        }
+
+        private List<Block> starts() {
+            return List.of(
                     new Block(1, 0, Direction.EAST, 0),
                     new Block(0, 1, Direction.SOUTH, 0));
-            return walker.findShortestPath(starts, this::isExit);
+        }
+
+        // Each block loses at least 1 : the distance to the exit is a consistent heuristic.
+        private long distanceToExit(Block block) {
+            return block.position.distance(new Position(heatLossGrid.getWidth() - 1, heatLossGrid.getHeight() - 1));
+        }
+
+        private List<Block> exits(boolean ultra) {
+            List<Block> exits = new ArrayList<>();
+            Position exit = new Position(heatLossGrid.getWidth() - 1, heatLossGrid.getHeight() - 1);
+            for (Direction d : DIRECTIONS) {
+                for (int s = 0; s < (ultra ? 10 : 3); s++) {
+                    exits.add(new Block(exit, d, s));
+                }
+            }
+            return exits;
+        }
+
+        private List<Block> previous(Block block, boolean ultra) {
+            return block.previous(ultra).stream().filter(p -> heatLossGrid.inBounds(p.position)).toList();
+        }
+
+        // Least heat loss from the entrance to the exit : bidirectional search by default, the d17.engine engine when it is set.
+        public long leastHeatLoss(boolean ultra, SearchListener listener) {
+            return leastHeatLoss(ultra, ENGINE, listener);
+        }
+
+        long leastHeatLoss(boolean ultra, String engine, SearchListener listener) {
+            LongWalker<Block> walker = walker(ultra).withListener(listener);
+            if (engine == null) {
+                return walker.shortestCostBidirectional(starts(), exits(ultra), b -> previous(b, ultra)).orElseThrow();
+            }
+            if (engine.equals("ASTAR")) {
+                return walker.shortestCost(starts(), this::isExit, this::distanceToExit, true).orElseThrow();
+            }
+            return walker.shortestCost(starts(), this::isExit, LongWalker.Engine.valueOf(engine), DELTA).orElseThrow();
         }
 
         public String draw(List<Block> path) {
@@ -79,26 +144,20 @@ public class D17 extends AoC {
     }
 
     @Override
-    public void run() {
-        City testCity = new City(list(getTestInputPath()));
-        Long time = System.currentTimeMillis();
-        Path<Block, Long> testPath = testCity.findLessHeatLosingPath(false);
-        time = System.currentTimeMillis() - time;
-        System.out.println("Test Cave best path (102) : " + testPath.cost()+" (+"+time+" ms)");
-        time = System.currentTimeMillis();
-        testPath = testCity.findLessHeatLosingPath(true);
-        time = System.currentTimeMillis() - time;
-        System.out.println("Test Cave best path (94) : " + testPath.cost()+" (+"+time+" ms)");
-
-        City city = new City(list(getInputPath()));
-        time = System.currentTimeMillis();
-        Path<Block, Long> path = city.findLessHeatLosingPath(false);
-        time = System.currentTimeMillis() - time;
-        System.out.println("Cave best path (817) : " + path.cost()+" (+"+time+" ms)");
-        time = System.currentTimeMillis();
-        path = city.findLessHeatLosingPath(true);
-        time = System.currentTimeMillis() - time;
-        System.out.println("Cave best path (925) : " + path.cost()+" (+"+time+" ms)");
+    public City parse(java.nio.file.Path input) {
+        return new City(map(input));
+    }
+
+    // Best path heat loss : test 102, real 817
+    @Override
+    public Long part1(City city) {
+        return withMetrics(listener -> city.leastHeatLoss(false, listener));
+    }
+
+    // Best path heat loss with ultra crucibles : test 94, real 925
+    @Override
+    public Long part2(City city) {
+        return withMetrics(listener -> city.leastHeatLoss(true, listener));
     }
 }
 
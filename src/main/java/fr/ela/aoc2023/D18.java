@@ -3,11 +3,12 @@ package fr.ela.aoc2023;
 import fr.ela.aoc2023.utils.Direction;
 import fr.ela.aoc2023.utils.Position;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-public class D18 extends AoC {
+public class D18 extends AoC<List<D18.Move>> {
 
     private static final Pattern hexaPattern = Pattern.compile(".*\\(#([a-f0-9]{6})\\)");
 
@@ -78,19 +79,20 @@ public class D18 extends AoC {
 
 
     @Override
-    public void run() {
-        List<Move> testMoves = list(getTestInputPath(), Move::parse);
-        long testArea = getLoopArea(testMoves);
-        System.out.println("Test Lavaduct Lagoon volume (62) : "+testArea);
-        testArea = getLoopArea(testMoves.stream().map(Move::hexa).toList());
-        System.out.println("Test Lavaduct Hexa Lagoon volume (952408144115) : "+testArea);
+    public List<Move> parse(Path input) {
+        return list(input, Move::parse);
+    }
 
-        List<Move> moves = list(getInputPath(), Move::parse);
-        long area = getLoopArea(moves);
-        System.out.println("Lavaduct Lagoon volume (40131) : "+area);
-        area = getLoopArea(moves.stream().map(Move::hexa).toList());
-        System.out.println("Lavaduct Hexa Lagoon volume (104454050898331) : "+area);
+    // Lavaduct lagoon volume : test 62, real 40131
+    @Override
+    public Long part1(List<Move> moves) {
+        return getLoopArea(moves);
+    }
 
+    // Lavaduct lagoon volume from hexadecimal instructions : test 952408144115, real 104454050898331
+    @Override
+    public Long part2(List<Move> moves) {
+        return getLoopArea(moves.stream().map(Move::hexa).toList());
     }
 }
 
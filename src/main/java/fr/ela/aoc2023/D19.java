@@ -2,6 +2,7 @@ package fr.ela.aoc2023;
 
 import fr.ela.aoc2023.utils.Range;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -16,7 +17,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-public class D19 extends AoC {
+public class D19 extends AoC<D19.Sorting> {
 
     static Pattern RULE_PATTERN = Pattern.compile("([amsx])([><])([0-9]+):([ARa-z]+)");
     static Pattern WORKFLOW_PATTERN = Pattern.compile("([a-z]+)\\{(.*)\\}");
@@ -208,21 +209,27 @@ public class D19 extends AoC {
         return parts.stream().filter(machine::accept).mapToLong(Part::score).sum();
     }
 
-    @Override
-    public void run() {
-        List<List<String>> testLines = splitOnEmptyLines(getTestInputPath());
-        Machine testMachine = new Machine(testLines.get(0).stream().map(D19::parseWorkflow).toList());
-        List<Part> testParts = testLines.get(1).stream().map(D19::parsePart).toList();
-
-        System.out.println("Test part 1 (19114) : " + partOne(testMachine, testParts));
-        System.out.println("Test Combinations (167409079868000) : "+testMachine.findCombinations());
+    public record Sorting(Machine machine, List<Part> parts) {
+    }
 
-        List<List<String>> lines = splitOnEmptyLines(getInputPath());
+    @Override
+    public Sorting parse(Path input) {
+        List<List<String>> lines = splitOnEmptyLines(input);
         Machine machine = new Machine(lines.get(0).stream().map(D19::parseWorkflow).toList());
         List<Part> parts = lines.get(1).stream().map(D19::parsePart).toList();
+        return new Sorting(machine, parts);
+    }
 
-        System.out.println("Part 1 (374873) : " + partOne(machine, parts));
-        System.out.println("Combinations (122112157518711) : "+machine.findCombinations());
+    // Accepted parts score : test 19114, real 374873
+    @Override
+    public Long part1(Sorting sorting) {
+        return partOne(sorting.machine, sorting.parts);
+    }
+
+    // Accepted combinations : test 167409079868000, real 122112157518711
+    @Override
+    public Long part2(Sorting sorting) {
+        return sorting.machine.findCombinations();
     }
 }
 
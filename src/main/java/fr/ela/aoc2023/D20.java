@@ -1,7 +1,7 @@
 package fr.ela.aoc2023;
 
 import java.math.BigInteger;
-import java.time.Duration;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -13,7 +13,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-public class D20 extends AoC {
+public class D20 extends AoC<D20.Machine> {
 
     private static Pattern PATTERN = Pattern.compile("([&%]?[a-z]+) -> ([a-z, ]+)");
 
@@ -68,6 +68,9 @@ public class D20 extends AoC {
 
         abstract Boolean nextPulse(Pulse pulse);
 
+        void reset() {
+        }
+
         public List<Pulse> apply(Pulse pulse) {
             Boolean nextPulse = nextPulse(pulse);
             if (nextPulse != null) {
@@ -115,6 +118,12 @@ public class D20 extends AoC {
         public void setInputs(List<String> strings) {
             strings.forEach(s -> pulseMap.put(s, Boolean.FALSE));
         }
+
+        @Override
+        void reset() {
+            pulseMap.replaceAll((input, high) -> Boolean.FALSE);
+        }
+
         public String toString() {
             return "Conjonction [" + name + "] " + String.join(", ", next);
         }
@@ -137,6 +146,11 @@ public class D20 extends AoC {
             return "FlipFlop ["+name+"] "+String.join(", ", next);
         }
 
+        @Override
+        void reset() {
+            status = false;
+        }
+
         @Override
         public Boolean nextPulse(Pulse pulse) {
             if (pulse.high) {
@@ -186,7 +200,7 @@ public class D20 extends AoC {
         // We know there is a cycle in the machine state => we must find the LCM of the number of pushes each of these needs to receive a single low pulse to the input of rx
         // At this point, input(rx) will have received 4 low pulses,
         // We push the button until each one receives a single low => LCM
-        private Long pushUntilSingleLowPulseToRX() {
+        Long pushUntilSingleLowPulseToRX() {
             // Needs to have received only high pulses => sends a low pulse to rx.
             Conjonction inputOfRx = modules.stream().filter(m -> m.next.contains("rx")).findFirst().map(Conjonction.class::cast).orElseThrow();
             List<Conjonction> inputsOfInputOfRx = modules.stream().filter(m -> m.next.contains(inputOfRx.name)).map(Conjonction.class::cast).toList();
@@ -204,6 +218,15 @@ public class D20 extends AoC {
             return map.values().stream().mapToLong(Integer::intValue).reduce((x, y) -> x * y).orElseThrow();
         }
 
+        // Back to the initial state of all modules.
+        void reset() {
+            modules.forEach(Module::reset);
+        }
+
+        boolean hasRX() {
+            return modules.stream().anyMatch(m -> m.next.contains("rx"));
+        }
+
         Module getModule(String name) {
             return modulesByName.get(name);
         }
@@ -305,28 +328,28 @@ public class D20 extends AoC {
     }
 
 
+    // The first test machine is in input-test, the second one in input-test2 : only the real machine has an rx module.
     @Override
-    public void run() {
-        List<List<String>> testInputs = splitOnEmptyLines(getTestInputPath());
-        Machine testMachine1 = Machine.build(testInputs.get(0));
-        Pair t1 = testMachine1.push(1000);
-        System.out.println("Test 1 score (32000000) : " + t1.result());
-
-        Machine testMachine2 = Machine.build(testInputs.get(1));
-        Pair t2 = testMachine2.push(1000);
-        System.out.println("Test 2 score (11687500) : " + t2.result());
-
-        Machine machine = Machine.build(list(getInputPath()));
-        Pair pair = machine.push(1000);
-        System.out.println("Real Machine score (730797576) : " + pair.result());
-
-        machine = Machine.build(list(getInputPath()));
-        long time = System.nanoTime();
-        System.out.println("Number of pushes to get a single low pulse to RX (226732077152351) : " + machine.pushUntilSingleLowPulseToRX()+" ("+ formatDuration(Duration.ofNanos(System.nanoTime() - time))+")");
-        machine = Machine.build(list(getInputPath()));
-        time = System.nanoTime();
-        System.out.println("Clever Solution (226732077152351) : " + machine.verySmartVersionWithBinaryRepresentationOfNumber()+" ("+ formatDuration(Duration.ofNanos(System.nanoTime() - time))+")");
+    public Machine parse(Path input) {
+        return Machine.build(list(input));
+    }
 
+    // Score after 1000 pushes : test 32000000 (11687500 for the second test machine), real 730797576
+    @Override
+    public Long part1(Machine machine) {
+        machine.reset();
+        return machine.push(1000).result();
+    }
+
+    // Number of pushes to get a single low pulse to rx : real 226732077152351
+    // verySmartVersionWithBinaryRepresentationOfNumber gives the same answer, without simulation.
+    @Override
+    public Long part2(Machine machine) {
+        if (!machine.hasRX()) {
+            return null;
+        }
+        machine.reset();
+        return machine.pushUntilSingleLowPulseToRX();
     }
 
 }
@@ -2,28 +2,38 @@ package fr.ela.aoc2023;
 
 import fr.ela.aoc2023.utils.Direction;
 import fr.ela.aoc2023.utils.Grid;
+import fr.ela.aoc2023.utils.MappedInput;
+import fr.ela.aoc2023.utils.NodeEncoder;
 import fr.ela.aoc2023.utils.Position;
+import fr.ela.aoc2023.utils.SearchListener;
+import fr.ela.aoc2023.utils.Walker;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-public class D21 extends AoC {
+public class D21 extends AoC<D21.Garden> {
 
     public enum Tile {
         ROCK, PLOT, START, ELF;
     }
 
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    // Steps of the elf in part 2.
+    private static final int STEPS = 26501365;
+
     public class Garden {
         private Grid<Tile> grid;
 
         final Position start;
+        final int steps;
 
-        public Garden(List<String> lines) {
-            this.grid = Grid.parseCharactersGrid(lines, c -> switch (c) {
+        public Garden(MappedInput input, int steps) {
+            this.steps = steps;
+            this.grid = Grid.parseCharactersGrid(input, c -> switch (c) {
                 case '#' -> Tile.ROCK;
                 case '.' -> null;
                 case 'S' -> Tile.START;
@@ -35,48 +45,65 @@ public class D21 extends AoC {
             grid.remove(start);
         }
 
-        public long getReachablePlots(long steps) {
-            Set<Position> prev = Set.of(start);
-            for (long i = 0; i < steps; i++) {
-                prev = prev.stream().flatMap(p -> grid.cardinalsIf(p, pos -> !grid.contains(pos)).stream()).collect(Collectors.toSet());
-            }
-            return prev.size();
+        // Plots reached in exactly n steps : those at most n steps away, with the parity of n, since the elf can go back and forth.
+        public long getReachablePlots(int steps) {
+            NodeEncoder<Position> window = NodeEncoder.positions(grid);
+            int[] distances = Walker.stepDistances(window.size(), new int[]{window.encode(start)}, steps,
+                    plotNeighbours(0, 0, grid.getWidth(), grid.getHeight()), SearchListener.NONE);
+            return Arrays.stream(distances).filter(d -> d >= 0 && d % 2 == steps % 2).count();
         }
 
-        Position mod(Position pos) {
-            int x = ((pos.x() % grid.getWidth()) + grid.getWidth()) % grid.getWidth();
-            int y = ((pos.y() % grid.getHeight()) + grid.getHeight()) % grid.getHeight();
-            return new Position(x, y);
+        /**
+         * Neighbour plots of the cell ids of the width x height window whose top left corner is (minX, minY), without
+         * creating positions : the garden repeats infinitely, so rocks are looked up modulo the grid size.
+         */
+        private Walker.IdNeighbours plotNeighbours(int minX, int minY, int width, int height) {
+            return (id, visitor) -> {
+                int x = id % width;
+                int y = id / width;
+                for (Direction d : DIRECTIONS) {
+                    int nx = x + d.xOffset();
+                    int ny = y + d.yOffset();
+                    if (nx >= 0 && ny >= 0 && nx < width && ny < height
+                            && !grid.contains(Math.floorMod(minX + nx, grid.getWidth()), Math.floorMod(minY + ny, grid.getHeight()))) {
+                        visitor.accept(ny * width + nx);
+                    }
+                }
+            };
+        }
+
+        // The extrapolation of part 2 relies on the row and column of the start being free of rocks, like in the real garden.
+        boolean hasClearPathsFromStart() {
+            return IntStream.range(0, grid.getWidth()).noneMatch(x -> grid.contains(new Position(x, start.y())))
+                    && IntStream.range(0, grid.getHeight()).noneMatch(y -> grid.contains(new Position(start.x(), y)));
         }
 
         public long getReachablePlots2() {
             List<Long> totals = new ArrayList<>();
             List<Long> deltas = new ArrayList<>();
             List<Long> deltaDeltas = new ArrayList<>();
-            Map<Position, Integer> distances = new HashMap<>();
-            distances.put(start, 0);
+            // The start is in the middle of a square garden : the totals are taken every two gardens, half a garden away from
+            // the start. The second delta of deltas comes with the fourth total, after half + 3 * period steps.
+            int half = grid.getWidth() / 2;
+            int period = 2 * grid.getWidth();
+            int maxSteps = half + period * 3;
+            int size = 2 * maxSteps + 1;
+            NodeEncoder<Position> window = NodeEncoder.positions(start.x() - maxSteps, start.y() - maxSteps, size, size);
+            int[] distances = Walker.stepDistances(window.size(), new int[]{window.encode(start)}, maxSteps,
+                    plotNeighbours(start.x() - maxSteps, start.y() - maxSteps, size, size), SearchListener.NONE);
+            long[] reachedAt = new long[maxSteps + 1];
+            for (int d : distances) {
+                if (d >= 0) {
+                    reachedAt[d]++;
+                }
+            }
             long totalReached = 0;
             int index = 0;
-            List<Position> reachablePoints = new ArrayList<>();
-            reachablePoints.add(start);
-            while (index < 1000) {
+            while (index < maxSteps) {
                 index++;
-                List<Position> tmp2 = new ArrayList<>();
-                for (Position c : reachablePoints) {
-                    for (Direction direction : Direction.values()) {
-                        Position candidate = direction.move(c);
-                        if (distances.get(candidate) == null) {
-                            Position mod = mod(candidate);
-                            if (!grid.contains(mod)) {
-                                tmp2.add(candidate);
-                                distances.put(candidate, index);
-                            }
-                        }
-                    }
-                }
                 if (index % 2 == 1) {
-                    totalReached += tmp2.size();
-                    if (index % 262 == 65) {
+                    totalReached += reachedAt[index];
+                    if (index % period == half) {
                         totals.add(totalReached);
                         int currTotals = totals.size();
                         if (currTotals > 1) {
@@ -92,10 +119,9 @@ public class D21 extends AoC {
                     }
 
                 }
-                reachablePoints = tmp2;
             }
-            long neededLoopCount = 26501365 / 262 - 1;
-            long currentLoopCount = index / 262 - 1;
+            long neededLoopCount = STEPS / period - 1;
+            long currentLoopCount = index / period - 1;
             long deltaLoopCount = neededLoopCount - currentLoopCount;
             long deltaLoopCountTriangular = (neededLoopCount * (neededLoopCount + 1)) / 2 - (currentLoopCount * (currentLoopCount + 1)) / 2;
             long deltaDelta = deltaDeltas.get(deltaDeltas.size() - 1);
@@ -105,14 +131,22 @@ public class D21 extends AoC {
 
     }
 
+    // The elf walks 6 steps in the test garden, 64 in the real one.
+    @Override
+    public Garden parse(Path input) {
+        return new Garden(map(input), isTestInput(input) ? 6 : 64);
+    }
+
+    // Plots reached : test 16, real 3639
     @Override
-    public void run() {
-        Garden testGarden = new Garden(list(getTestInputPath()));
-        System.out.println("Plots reached on test garden after 6 steps (16) : " + testGarden.getReachablePlots(6));
+    public Long part1(Garden garden) {
+        return garden.getReachablePlots(garden.steps);
+    }
 
-        Garden garden = new Garden(list(getInputPath()));
-        System.out.println("Plots reached on garden after 64 steps (3639) : " + garden.getReachablePlots(64));
-        System.out.println("Part 2 (no way I would have find this myself) : " + garden.getReachablePlots2());
+    // Part 2 (no way I would have find this myself) : real 604592315958630
+    @Override
+    public Long part2(Garden garden) {
+        return garden.hasClearPathsFromStart() ? garden.getReachablePlots2() : null;
     }
 }
 
@@ -1,7 +1,10 @@
 package fr.ela.aoc2023;
 
+import fr.ela.aoc2023.utils.MappedInput;
+import fr.ela.aoc2023.utils.MappedInput.ByteSlice;
 import fr.ela.aoc2023.utils.Position3D;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -19,7 +22,7 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
-public class D22 extends AoC {
+public class D22 extends AoC<D22.Space> {
 
     private static Pattern BRICK_PATTERN = Pattern.compile("([0-9]+),([0-9]+),([0-9]+)~([0-9]+),([0-9]+),([0-9]+)");
 
@@ -60,14 +63,19 @@ public class D22 extends AoC {
             return new Brick(id, List.of(start));
         }
 
-        public static Brick parse(int id, String line) {
+        public static Brick parse(int id, ByteSlice line) {
+            // The pattern runs on the mapped bytes, numbers are read in place instead of going through group(i) strings.
             Matcher m = BRICK_PATTERN.matcher(line);
             if (m.matches()) {
-                Position3D start = new Position3D(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)));
-                Position3D end = new Position3D(Integer.parseInt(m.group(4)), Integer.parseInt(m.group(5)), Integer.parseInt(m.group(6)));
+                Position3D start = new Position3D(group(line, m, 1), group(line, m, 2), group(line, m, 3));
+                Position3D end = new Position3D(group(line, m, 4), group(line, m, 5), group(line, m, 6));
                 return Brick.between(id, start, end);
             }
-            throw new IllegalArgumentException(line);
+            throw new IllegalArgumentException(line.toString());
+        }
+
+        private static int group(ByteSlice line, Matcher m, int group) {
+            return line.parseInt(m.start(group), m.end(group));
         }
 
         public String toString() {
@@ -75,7 +83,7 @@ public class D22 extends AoC {
         }
     }
 
-    private static class Space {
+    static class Space {
         final List<Brick> bricks;
         final Map<Position3D, Brick> positions = new HashMap<>();
 
@@ -84,10 +92,10 @@ public class D22 extends AoC {
             this.positions.putAll(other.positions);
         }
 
-        public Space(List<String> lines) {
+        public Space(MappedInput input) {
             bricks = new ArrayList<>();
-            for (int i = 0; i < lines.size(); i++) {
-                bricks.add(Brick.parse(i, lines.get(i)));
+            for (int i = 0; i < input.lineCount(); i++) {
+                bricks.add(Brick.parse(i, input.line(i)));
             }
             bricks.forEach(b -> b.positions.forEach(p -> positions.put(p, b)));
         }
@@ -204,19 +212,22 @@ public class D22 extends AoC {
     }
 
 
+    // Both parts work on the stacked bricks.
+    @Override
+    public Space parse(Path input) {
+        return new Space(map(input)).stack();
+    }
+
+    // Removable bricks : test 5, real 398
+    @Override
+    public Integer part1(Space stacked) {
+        return stacked.getRemovableBricks().size();
+    }
+
+    // Falling bricks : test 7, real 70727
     @Override
-    public void run() {
-        Space testSpace = new Space(list(getTestInputPath()));
-        Space testStacked = testSpace.stack();
-        Collection<Brick> testRemovables = testStacked.getRemovableBricks();
-        System.out.println("Test Space removables bricks (5) : " + testRemovables.size());
-        System.out.println("Test Space falling bricks (7) : " + testStacked.countFallingBricks());
-
-        Space space = new Space(list(getInputPath()));
-        Space stacked = space.stack();
-        Collection<Brick> removables = stacked.getRemovableBricks();
-        System.out.println("Space removables bricks (398) : "+removables.size());
-        System.out.println("Space falling bricks (70727) : " + stacked.countFallingBricks());
+    public Long part2(Space stacked) {
+        return stacked.countFallingBricks();
     }
 }
 
@@ -2,22 +2,25 @@ package fr.ela.aoc2023;
 
 import fr.ela.aoc2023.utils.Direction;
 import fr.ela.aoc2023.utils.Grid;
+import fr.ela.aoc2023.utils.GridPositionSet;
+import fr.ela.aoc2023.utils.LongestPath;
+import fr.ela.aoc2023.utils.MappedInput;
 import fr.ela.aoc2023.utils.Path;
 import fr.ela.aoc2023.utils.Position;
+import fr.ela.aoc2023.utils.SearchListener;
 import fr.ela.aoc2023.utils.Walker;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiPredicate;
 
-public class D23 extends AoC {
+public class D23 extends AoC<D23.Mountain> {
 
     public enum Track {
         PATH(null),
@@ -81,15 +84,15 @@ public class D23 extends AoC {
             this.trails = findTrails();
         }
 
-        public Mountain(List<String> lines) {
-            grid = Grid.parseCharactersGrid(lines, Track::of);
+        public Mountain(MappedInput input) {
+            grid = Grid.parseCharactersGrid(input, Track::of);
             start = new Position(1, 0);
             end = new Position(grid.getWidth() - 2, grid.getHeight() - 1);
             this.trails = findTrails();
         }
 
         public Mountain dry() {
-            Grid<Track> drygrid = new Grid<>(grid.getWidth(), grid.getHeight());
+            Grid<Track> drygrid = Grid.dense(grid.getWidth(), grid.getHeight(), Track.values().length);
             Arrays.stream(Track.values()).flatMap(t -> grid.getPositionsOf(t).stream())
                     .forEach(p -> drygrid.put(p, Track.PATH));
             return new Mountain(drygrid);
@@ -97,30 +100,32 @@ public class D23 extends AoC {
 
         List<Position> next(Position position, Position prev) {
             Track t = grid.get(position);
-            List<Position> res = t.directions.stream().map(d -> move(position, d)).toList();
-            return res.stream()
-                    .filter(Objects::nonNull)
-                    .filter(p -> !p.equals(prev)).toList();
+            List<Position> res = new ArrayList<>(4);
+            grid.forEachCardinal(position.x(), position.y(), (d, x, y) -> {
+                if (t.directions.contains(d) && canMove(d, x, y) && (prev == null || prev.x() != x || prev.y() != y)) {
+                    res.add(new Position(x, y));
+                }
+            });
+            return res;
         }
 
-        private Position move(Position from, Direction d) {
-            Position next = d.move(from);
-            return (grid.contains(next) && !grid.get(next).isOpposite(d)) ? next : null;
+        private boolean canMove(Direction d, int x, int y) {
+            Track next = grid.get(x, y);
+            return next != null && !next.isOpposite(d);
         }
 
         Map<Position, List<Trail>> findTrails() {
-            Set<Position> crossings = new HashSet<>();
+            GridPositionSet crossings = new GridPositionSet(grid);
             crossings.add(start);
             crossings.add(end);
             Map<Position, List<Trail>> allTrails = new HashMap<>();
 
             for (Position pos : grid.getPositionsOf(Track.PATH)) {
-                List<Position> cards = grid.to(pos, Set.of());
-                if (cards.size() > 2) {
+                if (grid.countCardinals(pos.x(), pos.y()) > 2) {
                     crossings.add(pos);
                 }
             }
-            for (Position crossing : crossings) {
+            for (Position crossing : crossings.stream().toList()) {
                 List<Position> outP = next(crossing, null);
                 for (Position out : outP) {
                     Trail t = findNextNode(crossing, out);
@@ -162,7 +167,32 @@ public class D23 extends AoC {
         }
 
         public long getLongestHike(boolean dry) {
-            Walker<Trail, Integer> walker = Walker.intWalker(this::nextTrails, Trail::length);
+            return getLongestHike(dry, SearchListener.NONE);
+        }
+
+        /**
+         * Longest path over the crossings. With the slopes, trails only go down and the graph is acyclic.
+         * Dry mountains with more crossings than the path mask can hold go through the exhaustive walker search.
+         */
+        public long getLongestHike(boolean dry, SearchListener listener) {
+            Map<Position, Integer> ids = new HashMap<>();
+            trails.values().forEach(ts -> ts.forEach(t -> {
+                ids.putIfAbsent(t.start, ids.size());
+                ids.putIfAbsent(t.end, ids.size());
+            }));
+            if (!ids.containsKey(start) || !ids.containsKey(end)) {
+                throw new IllegalStateException("No trail from " + start + " to " + end);
+            }
+            LongestPath longestPath = new LongestPath(ids.size(), ForkJoinPool.commonPool()).withListener(listener);
+            trails.values().forEach(ts -> ts.forEach(t -> longestPath.addEdge(ids.get(t.start), ids.get(t.end), t.length)));
+            if (!longestPath.isSolvable()) {
+                return getLongestHikeByWalker(dry, listener);
+            }
+            return longestPath.longest(ids.get(start), ids.get(end)).orElseThrow() - 1;
+        }
+
+        private long getLongestHikeByWalker(boolean dry, SearchListener listener) {
+            Walker<Trail, Integer> walker = Walker.intWalker(this::nextTrails, Trail::length).withListener(listener);
             Trail startingTrail = trails.get(start).stream().reduce((x, y) -> {
                 throw new IllegalStateException();
             }).orElseThrow();
@@ -176,20 +206,20 @@ public class D23 extends AoC {
     }
 
     @Override
-    public void run() {
-        Mountain testMountain = new Mountain(list(getTestInputPath()));
-        long time = System.nanoTime();
-        System.out.println("Longest test hike (94) : " + testMountain.getLongestHike(true) + " (" + this.formatDuration(time) + ")");
-        Mountain testDryMountain = testMountain.dry();
-        time = System.nanoTime();
-        System.out.println("Longest test hike on dry mountain (154) : " + testDryMountain.getLongestHike(true) + " (" + this.formatDuration(time) + ")");
-
-        Mountain mountain = new Mountain(list(getInputPath()));
-        time = System.nanoTime();
-        System.out.println("Longest hike (2162) : " + mountain.getLongestHike(false) + " (" + this.formatDuration(time) + ")");
-        Mountain dryMountain = mountain.dry();
-        time = System.nanoTime();
-        System.out.println("Longest hike on dry mountain (6334) : " + dryMountain.getLongestHike(true) + " (" + this.formatDuration(System.nanoTime() - time) + ")");
+    public Mountain parse(java.nio.file.Path input) {
+        return new Mountain(map(input));
+    }
+
+    // Longest hike : test 94, real 2162
+    @Override
+    public Long part1(Mountain mountain) {
+        return withMetrics(listener -> mountain.getLongestHike(false, listener));
+    }
+
+    // Longest hike on dry mountain : test 154, real 6334
+    @Override
+    public Long part2(Mountain mountain) {
+        return withMetrics(listener -> mountain.dry().getLongestHike(true, listener));
     }
 
 }
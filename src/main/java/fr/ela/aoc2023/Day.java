@@ -0,0 +1,25 @@
+package fr.ela.aoc2023;
+
+import java.nio.file.Path;
+
+/**
+ * Phases of a day : the input is parsed once into a model, then each part is solved from that model.
+ * The model is shared by both parts, and may be cached or benchmarked : a part must give the same answer
+ * whether or not the other part already ran on the model.
+ *
+ * @param <M> the parsed input.
+ */
+public interface Day<M> {
+
+    M parse(Path input);
+
+    /**
+     * @return the answer of part 1, or null if it does not apply to this input.
+     */
+    Object part1(M model);
+
+    /**
+     * @return the answer of part 2, or null if it does not apply to this input.
+     */
+    Object part2(M model);
+}
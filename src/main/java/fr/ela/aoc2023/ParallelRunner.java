@@ -0,0 +1,189 @@
+package fr.ela.aoc2023;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs all the days concurrently on a work-stealing pool.
+ * Days are submitted longest first, using the wall times of the previous run, and each day's output is captured
+ * and printed once everything is done, followed by a timing report.
+ * CPU time and allocated bytes are those of the thread running the day : work a day forks to other threads is not counted.
+ */
+public class ParallelRunner {
+
+    private static final Path TIMINGS = Paths.get("target", "timings.properties");
+
+    record DayReport(String day, String output, long wallNanos, long cpuNanos, long allocatedBytes) {
+    }
+
+    private final List<String> days;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    public ParallelRunner(List<String> days) {
+        this.days = days;
+    }
+
+    public void run() {
+        Properties previous = loadTimings();
+        // Days without history go first, they might be the slow ones.
+        List<String> ordered = days.stream()
+                .sorted(Comparator.comparingLong((String d) -> Long.parseLong(previous.getProperty(d, Long.toString(Long.MAX_VALUE)))).reversed())
+                .toList();
+
+        PrintStream out = System.out;
+        ThreadRoutingOutputStream routing = new ThreadRoutingOutputStream(out);
+        System.setOut(new PrintStream(routing, true));
+        long start = System.nanoTime();
+        List<DayReport> reports;
+        ExecutorService pool = Executors.newWorkStealingPool();
+        try {
+            List<Future<DayReport>> futures = ordered.stream().map(d -> pool.submit(() -> runDay(d, routing))).toList();
+            reports = futures.stream().map(ParallelRunner::get).sorted(Comparator.comparing(DayReport::day)).toList();
+        } finally {
+            pool.shutdown();
+            System.setOut(out);
+        }
+        long wall = System.nanoTime() - start;
+
+        reports.forEach(r -> out.print(r.output));
+        out.println(report(reports, wall));
+        saveTimings(reports);
+    }
+
+    private DayReport runDay(String day, ThreadRoutingOutputStream routing) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PrintStream dayOut = new PrintStream(buffer, true);
+        OutputStream previous = routing.capture(buffer);
+        long cpu = threads.getCurrentThreadCpuTime();
+        long allocated = currentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        try {
+            AoC<?> instance = AoC.newInstance(day);
+            System.out.println("---- AoC " + day + " -----------");
+            instance.run();
+            System.out.println("");
+        } catch (Exception e) {
+            e.printStackTrace(dayOut);
+        } finally {
+            routing.restore(previous);
+        }
+        long wallNanos = System.nanoTime() - start;
+        long cpuNanos = threads.getCurrentThreadCpuTime() - cpu;
+        long allocatedBytes = currentThreadAllocatedBytes() - allocated;
+        dayOut.flush();
+        return new DayReport(day, buffer.toString(), wallNanos, cpuNanos, allocatedBytes);
+    }
+
+    private long currentThreadAllocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    private static DayReport get(Future<DayReport> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    static String report(List<DayReport> reports, long wallNanos) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-6s %12s %12s %16s%n", "Day", "Wall (ms)", "CPU (ms)", "Allocated (MB)"));
+        for (DayReport r : reports) {
+            sb.append(String.format("%-6s %12d %12d %16.1f%n", r.day, r.wallNanos / 1_000_000, r.cpuNanos / 1_000_000, r.allocatedBytes / (1024.0 * 1024.0)));
+        }
+        long sum = reports.stream().mapToLong(DayReport::wallNanos).sum();
+        sb.append(String.format("Total wall time : %d ms (sum of days : %d ms)", wallNanos / 1_000_000, sum / 1_000_000));
+        return sb.toString();
+    }
+
+    private static Properties loadTimings() {
+        Properties properties = new Properties();
+        if (Files.exists(TIMINGS)) {
+            try (Reader reader = Files.newBufferedReader(TIMINGS)) {
+                properties.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                // No history : every day is considered as slow.
+            }
+        }
+        return properties;
+    }
+
+    private static void saveTimings(List<DayReport> reports) {
+        Properties properties = loadTimings();
+        reports.forEach(r -> properties.setProperty(r.day, Long.toString(r.wallNanos / 1_000_000)));
+        try (Writer writer = Files.newBufferedWriter(TIMINGS)) {
+            properties.store(writer, "Wall time (ms) of the last parallel run, used to schedule the longest days first");
+        } catch (IOException e) {
+            System.err.println("Could not save timings to " + TIMINGS + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sends System.out writes to the buffer of the day running on the current thread, or to the real output otherwise.
+     */
+    static class ThreadRoutingOutputStream extends OutputStream {
+        private final OutputStream fallback;
+        private final ThreadLocal<OutputStream> target = new ThreadLocal<>();
+
+        ThreadRoutingOutputStream(OutputStream fallback) {
+            this.fallback = fallback;
+        }
+
+        OutputStream capture(OutputStream out) {
+            OutputStream previous = target.get();
+            target.set(out);
+            return previous;
+        }
+
+        void restore(OutputStream previous) {
+            if (previous == null) {
+                target.remove();
+            } else {
+                target.set(previous);
+            }
+        }
+
+        private OutputStream current() {
+            OutputStream out = target.get();
+            return out == null ? fallback : out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            current().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            current().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            current().flush();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package fr.ela.aoc2023.utils;
+
+import java.util.Arrays;
+
+/**
+ * Monotone priority queue of int ids with long priorities (Dial's algorithm) : one bucket per priority, in a circular
+ * array that grows when the priorities go beyond its span. Pops are O(1) amortized, as long as priorities are never pushed
+ * below the last popped one, which is the case of Dijkstra with non negative costs.
+ * Within a bucket, the last pushed id is popped first.
+ */
+public class BucketQueue {
+
+    private int[][] buckets;
+    private int[] sizes;
+    private int mask;
+    // Lowest and highest priorities in the queue (the highest one is only an upper bound once ids were popped).
+    private long current;
+    private long highest;
+    private long lastPopped = Long.MIN_VALUE;
+    private int size;
+
+    public BucketQueue() {
+        this(64);
+    }
+
+    public BucketQueue(int span) {
+        int capacity = Integer.highestOneBit(Math.max(2, span) - 1) << 1;
+        buckets = new int[capacity][];
+        sizes = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public void push(int id, long priority) {
+        if (priority < lastPopped) {
+            throw new IllegalArgumentException("Priority " + priority + " is lower than the last popped one " + lastPopped);
+        }
+        if (size == 0) {
+            current = priority;
+            highest = priority;
+        }
+        long lowest = Math.min(current, priority);
+        highest = Math.max(highest, priority);
+        while (highest - lowest > mask) {
+            grow();
+        }
+        current = lowest;
+        int bucket = (int) (priority & mask);
+        int[] ids = buckets[bucket];
+        if (ids == null) {
+            ids = buckets[bucket] = new int[8];
+        } else if (sizes[bucket] == ids.length) {
+            ids = buckets[bucket] = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[sizes[bucket]++] = id;
+        size++;
+    }
+
+    private void grow() {
+        int[][] oldBuckets = buckets;
+        int[] oldSizes = sizes;
+        int oldMask = mask;
+        buckets = new int[oldBuckets.length * 2][];
+        sizes = new int[oldBuckets.length * 2];
+        mask = buckets.length - 1;
+        for (int i = 0; i < oldBuckets.length; i++) {
+            // Priorities in the queue span [current, current + old capacity), one per bucket.
+            long priority = current + ((i - current) & oldMask);
+            int bucket = (int) (priority & mask);
+            buckets[bucket] = oldBuckets[i];
+            sizes[bucket] = oldSizes[i];
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Lowest priority in the queue, which must not be empty.
+     */
+    public long peekPriority() {
+        if (size == 0) {
+            throw new IllegalStateException("Empty queue");
+        }
+        while (sizes[(int) (current & mask)] == 0) {
+            current++;
+        }
+        return current;
+    }
+
+    /**
+     * Removes one of the ids with the lowest priority, which is then given by peekPriority().
+     */
+    public int pop() {
+        lastPopped = peekPriority();
+        int bucket = (int) (lastPopped & mask);
+        size--;
+        return buckets[bucket][--sizes[bucket]];
+    }
+}
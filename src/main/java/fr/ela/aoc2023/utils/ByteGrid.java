@@ -0,0 +1,72 @@
+package fr.ela.aoc2023.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense grid of any value type, with at most 255 distinct values : each cell is the byte code of its value in a palette,
+ * 0 being the empty cell.
+ */
+public class ByteGrid<N> extends DenseGrid<N> {
+
+    static final int MAX_VALUES = 255;
+
+    private final byte[] cells;
+    private final List<N> palette = new ArrayList<>();
+    private final Map<N, Integer> codes = new HashMap<>();
+
+    public ByteGrid(int width, int height) {
+        super(width, height);
+        this.cells = new byte[width * height];
+        palette.add(null);
+    }
+
+    private int code(N value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            if (palette.size() > MAX_VALUES) {
+                throw new IllegalStateException("More than " + MAX_VALUES + " distinct values in grid");
+            }
+            code = palette.size();
+            palette.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    @Override
+    protected boolean isSet(int index) {
+        return cells[index] != 0;
+    }
+
+    @Override
+    protected N getAt(int index) {
+        return palette.get(cells[index] & 0xFF);
+    }
+
+    @Override
+    protected void setAt(int index, N value) {
+        cells[index] = (byte) code(value);
+    }
+
+    @Override
+    protected void clear(int index) {
+        cells[index] = 0;
+    }
+
+    @Override
+    public List<Position> getPositionsOf(N value) {
+        Integer code = codes.get(value);
+        List<Position> positions = new ArrayList<>();
+        if (code != null) {
+            for (int i = 0; i < cells.length; i++) {
+                if ((cells[i] & 0xFF) == code) {
+                    positions.add(position(i));
+                }
+            }
+        }
+        return positions;
+    }
+}
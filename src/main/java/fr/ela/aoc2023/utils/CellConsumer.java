@@ -0,0 +1,6 @@
+package fr.ela.aoc2023.utils;
+
+@FunctionalInterface
+public interface CellConsumer {
+    void accept(int x, int y);
+}
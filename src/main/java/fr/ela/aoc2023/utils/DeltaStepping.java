@@ -0,0 +1,131 @@
+package fr.ela.aoc2023.utils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel shortest path (delta-stepping) with the same advance / cost functions as LongWalker : nodes are put in buckets
+ * of delta wide cost ranges, and the nodes of the lowest bucket are all expanded at once by the fork-join pool.
+ * Nodes improved into the current bucket are expanded again until it is empty ; then its nodes have their best cost.
+ * Best costs are in an AtomicLongArray indexed by node id, lowered by compare-and-set.
+ * The listener is only told about the buckets and rounds, from the calling thread, once the search is over.
+ */
+public class DeltaStepping<N> {
+    private final Function<N, List<N>> advance;
+    private final ToLongFunction<N> costFunction;
+    private final NodeEncoder<N> encoder;
+    private final long delta;
+    private final ForkJoinPool pool;
+    private SearchListener listener = SearchListener.NONE;
+
+    public DeltaStepping(Function<N, List<N>> advance, ToLongFunction<N> costFunction, NodeEncoder<N> encoder, long delta, ForkJoinPool pool) {
+        if (delta <= 0) {
+            throw new IllegalArgumentException("Delta must be positive : " + delta);
+        }
+        this.advance = advance;
+        this.costFunction = costFunction;
+        this.encoder = encoder;
+        this.delta = delta;
+        this.pool = pool;
+    }
+
+    public DeltaStepping<N> withListener(SearchListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public OptionalLong shortestCost(List<N> start, Predicate<N> endReached) {
+        long time = System.nanoTime();
+        long bucketCount = 0;
+        long rounds = 0;
+        long relaxed = 0;
+        AtomicLongArray best = new AtomicLongArray(encoder.size());
+        for (int i = 0; i < encoder.size(); i++) {
+            best.set(i, Long.MAX_VALUE);
+        }
+        AtomicLong bestEnd = new AtomicLong(Long.MAX_VALUE);
+        TreeMap<Long, IntStream.Builder> buckets = new TreeMap<>();
+        for (N s : start) {
+            int id = encoder.encode(s);
+            long cost = costFunction.applyAsLong(s);
+            if (lower(best, id, cost)) {
+                buckets.computeIfAbsent(cost / delta, b -> IntStream.builder()).add(id);
+                if (endReached.test(s)) {
+                    bestEnd.accumulateAndGet(cost, Math::min);
+                }
+            }
+        }
+        while (!buckets.isEmpty()) {
+            Map.Entry<Long, IntStream.Builder> lowest = buckets.pollFirstEntry();
+            long bucket = lowest.getKey();
+            if (bucket * delta >= bestEnd.get()) {
+                // Every node left costs at least as much as the best end found.
+                break;
+            }
+            int[] frontier = lowest.getValue().build().filter(id -> best.get(id) / delta == bucket).distinct().toArray();
+            bucketCount++;
+            while (frontier.length > 0) {
+                rounds++;
+                relaxed += frontier.length;
+                int[] expanded = frontier;
+                int[] improved = pool.submit(() -> Arrays.stream(expanded).parallel()
+                        .flatMap(id -> relax(id, best, bestEnd, endReached))
+                        .toArray()).join();
+                IntStream.Builder again = IntStream.builder();
+                for (int id : improved) {
+                    long b = best.get(id) / delta;
+                    if (b == bucket) {
+                        again.add(id);
+                    } else {
+                        buckets.computeIfAbsent(b, k -> IntStream.builder()).add(id);
+                    }
+                }
+                frontier = again.build().distinct().toArray();
+            }
+        }
+        listener.counter("buckets", bucketCount);
+        listener.counter("rounds", rounds);
+        listener.counter("nodes relaxed", relaxed);
+        listener.phase("search", System.nanoTime() - time);
+        return bestEnd.get() == Long.MAX_VALUE ? OptionalLong.empty() : OptionalLong.of(bestEnd.get());
+    }
+
+    // Ids of the next nodes whose cost was lowered.
+    private IntStream relax(int id, AtomicLongArray best, AtomicLong bestEnd, Predicate<N> endReached) {
+        N node = encoder.decode(id);
+        long cost = best.get(id);
+        IntStream.Builder improved = IntStream.builder();
+        for (N n : advance.apply(node)) {
+            int next = encoder.encode(n);
+            long nextCost = cost + costFunction.applyAsLong(n);
+            if (lower(best, next, nextCost)) {
+                improved.add(next);
+                if (endReached.test(n)) {
+                    bestEnd.accumulateAndGet(nextCost, Math::min);
+                }
+            }
+        }
+        return improved.build();
+    }
+
+    private static boolean lower(AtomicLongArray best, int id, long cost) {
+        long current = best.get(id);
+        while (cost < current) {
+            if (best.compareAndSet(id, current, cost)) {
+                return true;
+            }
+            current = best.get(id);
+        }
+        return false;
+    }
+}
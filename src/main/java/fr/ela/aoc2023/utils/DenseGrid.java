@@ -0,0 +1,122 @@
+package fr.ela.aoc2023.utils;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Grid storing every cell in a row-major array : the cell (x, y) is at index y * width + x.
+ * Out of bounds cells are empty.
+ */
+public abstract class DenseGrid<N> extends Grid<N> {
+
+    // Index offset of each direction, in Direction order.
+    private final int[] indexOffsets;
+
+    protected DenseGrid(int width, int height) {
+        super(width, height);
+        this.indexOffsets = new int[Direction.CARDINALS.length];
+        for (Direction d : Direction.CARDINALS) {
+            indexOffsets[d.ordinal()] = d.yOffset * width + d.xOffset;
+        }
+    }
+
+    protected abstract boolean isSet(int index);
+
+    protected abstract N getAt(int index);
+
+    protected abstract void setAt(int index, N value);
+
+    protected abstract void clear(int index);
+
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    public int index(Position pos) {
+        return index(pos.x(), pos.y());
+    }
+
+    public Position position(int index) {
+        return new Position(index % width, index / width);
+    }
+
+    /**
+     * Visits the indexes of the in bounds neighbours of the cell at index.
+     */
+    public void forEachCardinal(int index, IntConsumer consumer) {
+        int x = index % width;
+        int y = index / width;
+        for (Direction d : Direction.CARDINALS) {
+            if (inBounds(x + d.xOffset, y + d.yOffset)) {
+                consumer.accept(index + indexOffsets[d.ordinal()]);
+            }
+        }
+    }
+
+    /**
+     * Writes the indexes of the in bounds neighbours of the cell at index in neighbours (at least 4 long),
+     * and returns how many there are.
+     */
+    public int cardinals(int index, int[] neighbours) {
+        int x = index % width;
+        int y = index / width;
+        int count = 0;
+        for (Direction d : Direction.CARDINALS) {
+            if (inBounds(x + d.xOffset, y + d.yOffset)) {
+                neighbours[count++] = index + indexOffsets[d.ordinal()];
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public N get(int x, int y) {
+        return inBounds(x, y) ? getAt(index(x, y)) : null;
+    }
+
+    @Override
+    public void put(int x, int y, N value) {
+        if (!inBounds(x, y)) {
+            throw new IndexOutOfBoundsException(new Position(x, y) + " is out of " + width + "x" + height);
+        }
+        if (value == null) {
+            clear(index(x, y));
+        } else {
+            setAt(index(x, y), value);
+        }
+    }
+
+    @Override
+    public void remove(int x, int y) {
+        if (inBounds(x, y)) {
+            clear(index(x, y));
+        }
+    }
+
+    @Override
+    public boolean contains(Position pos) {
+        return inBounds(pos) && isSet(index(pos));
+    }
+
+    @Override
+    public boolean contains(int x, int y) {
+        return inBounds(x, y) && isSet(index(x, y));
+    }
+
+    @Override
+    public int size() {
+        return (int) IntStream.range(0, width * height).filter(this::isSet).count();
+    }
+
+    @Override
+    public Stream<Position> stream() {
+        return IntStream.range(0, width * height).filter(this::isSet).mapToObj(this::position);
+    }
+
+    @Override
+    public List<Position> getPositionsOf(N value) {
+        return IntStream.range(0, width * height).filter(i -> isSet(i) && value.equals(getAt(i))).mapToObj(this::position).toList();
+    }
+}
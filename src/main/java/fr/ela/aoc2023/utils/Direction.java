@@ -7,6 +7,9 @@ public enum Direction {
     SOUTH(0, 1),
     WEST(-1, 0);
 
+    // values() copies the array on each call.
+    static final Direction[] CARDINALS = values();
+
     final int xOffset;
     final int yOffset;
 
@@ -14,6 +17,14 @@ public enum Direction {
         this.xOffset = xOffset;
         this.yOffset = yOffset;
     }
+    public int xOffset() {
+        return xOffset;
+    }
+
+    public int yOffset() {
+        return yOffset;
+    }
+
     public Position move(Position from) {
         return move(from, 1);
     }
@@ -4,45 +4,120 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.IntToLongFunction;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
-public class Grid<N> {
+/**
+ * A bounded grid of values, where a cell can be empty (null).
+ * SparseGrid keeps the non empty cells in a map, the dense grids (ByteGrid, ObjectGrid, LongGrid) store
+ * every cell in a row-major array.
+ */
+public abstract class Grid<N> {
+
+    // A map entry, with its Position key, weighs about as much as this many ByteGrid cells.
+    private static final int CELLS_PER_ENTRY = 64;
 
-    Map<Position, N> map;
     final int width;
     final int height;
 
-    public Grid(int width, int height) {
+    protected Grid(int width, int height) {
         this.width = width;
         this.height = height;
-        map = new HashMap<>();
+    }
+
+    public static <K> Grid<K> sparse(int width, int height) {
+        return new SparseGrid<>(width, height);
+    }
+
+    /**
+     * Dense grid for a domain of distinctValues values : cells are palette bytes when it fits a ByteGrid, references otherwise.
+     */
+    public static <K> Grid<K> dense(int width, int height, long distinctValues) {
+        return distinctValues <= ByteGrid.MAX_VALUES ? new ByteGrid<>(width, height) : new ObjectGrid<>(width, height);
+    }
+
+    interface CharSource {
+        char charAt(int x, int y);
     }
 
     public static <K> Grid<K> parseCharactersGrid(List<String> lines, Function<Character, K> mapper) {
-        int height = lines.size();
-        int width = lines.get(0).length();
-        Grid<K> grid = new Grid<>(width, height);
+        return parseCharactersGrid(lines.get(0).length(), lines.size(), (x, y) -> lines.get(y).charAt(x), mapper);
+    }
+
+    public static <K> Grid<K> parseCharactersGrid(MappedInput input, Function<Character, K> mapper) {
+        return parseCharactersGrid(input.lineLength(0), input.lineCount(), (x, y) -> (char) input.byteAt(input.lineStart(y) + x), mapper);
+    }
+
+    /**
+     * The mapper is applied once per distinct character. The grid is sparse when few cells are not empty, otherwise its
+     * dense storage is picked from the number of distinct values.
+     */
+    private static <K> Grid<K> parseCharactersGrid(int width, int height, CharSource source, Function<Character, K> mapper) {
+        Map<Character, K> values = new HashMap<>();
+        long set = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                char c = source.charAt(x, y);
+                if (!values.containsKey(c)) {
+                    values.put(c, mapper.apply(c));
+                }
+                if (values.get(c) != null) {
+                    set++;
+                }
+            }
+        }
+        long distinct = values.values().stream().filter(Objects::nonNull).distinct().count();
+        Grid<K> grid = set * CELLS_PER_ENTRY < (long) width * height ? sparse(width, height) : dense(width, height, distinct);
         for (int y = 0; y < height; y++) {
-            String line = lines.get(y);
             for (int x = 0; x < width; x++) {
-                K k = mapper.apply(line.charAt(x));
+                K k = values.get(source.charAt(x, y));
                 if (k != null) {
-                    grid.map.put(new Position(x, y), mapper.apply(line.charAt(x)));
+                    grid.put(x, y, k);
                 }
             }
         }
         return grid;
     }
 
-    public List<Position> getPositionsOf(N value) {
-        return map.entrySet().stream().filter(e -> e.getValue().equals(value)).map(Map.Entry::getKey).toList();
+    /**
+     * The mapper gets each character and returns LongGrid.MISSING for empty cells.
+     */
+    public static LongGrid parseLongGrid(MappedInput input, IntToLongFunction mapper) {
+        LongGrid grid = new LongGrid(input.lineLength(0), input.lineCount());
+        for (int y = 0; y < grid.height; y++) {
+            int start = input.lineStart(y);
+            for (int x = 0; x < grid.width; x++) {
+                long value = mapper.applyAsLong(input.byteAt(start + x));
+                if (value != LongGrid.MISSING) {
+                    grid.putLong(x, y, value);
+                }
+            }
+        }
+        return grid;
     }
 
-    public Stream<Position> stream() {
-        return map.keySet().stream();
+    public abstract N get(int x, int y);
+
+    public abstract void put(int x, int y, N value);
+
+    public abstract void remove(int x, int y);
+
+    /**
+     * Number of non empty cells.
+     */
+    public abstract int size();
+
+    /**
+     * Positions of the non empty cells.
+     */
+    public abstract Stream<Position> stream();
+
+    public List<Position> getPositionsOf(N value) {
+        return stream().filter(p -> value.equals(get(p))).toList();
     }
 
     public int getWidth() {
@@ -53,39 +128,88 @@ public class Grid<N> {
         return height;
     }
 
-    public int size() {
-        return map.size();
+    public N get(Position pos) {
+        return get(pos.x(), pos.y());
     }
 
-    public N get(int x, int y) {
-        return get(new Position(x, y));
+    public void put(Position pos, N value) {
+        put(pos.x(), pos.y(), value);
     }
 
-    public N get(Position pos) {
-        return map.get(pos);
+    public void remove(Position pos) {
+        remove(pos.x(), pos.y());
     }
-    public void put(Position pos, N value) {
-        map.put(pos, value);
+
+    public boolean contains(Position pos) {
+        return get(pos) != null;
+    }
+
+    public boolean contains(int x, int y) {
+        return get(x, y) != null;
+    }
+
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
     }
 
     public boolean inBounds(Position pos) {
-        return pos.x() >= 0 && pos.y() >= 0 && pos.x() < width && pos.y() < height;
+        return inBounds(pos.x(), pos.y());
     }
 
     public boolean isBottomRightCorner(Position position) {
         return position.y() == height - 1 && position.x() == width - 1;
     }
 
+    /**
+     * Visits the in bounds neighbours of (x, y).
+     */
+    public void forEachCardinal(int x, int y, NeighbourConsumer consumer) {
+        for (Direction d : Direction.CARDINALS) {
+            int nx = x + d.xOffset;
+            int ny = y + d.yOffset;
+            if (inBounds(nx, ny)) {
+                consumer.accept(d, nx, ny);
+            }
+        }
+    }
+
+    /**
+     * Number of non empty neighbours of (x, y).
+     */
+    public int countCardinals(int x, int y) {
+        int count = 0;
+        for (Direction d : Direction.CARDINALS) {
+            if (contains(x + d.xOffset, y + d.yOffset)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     public List<Position> cardinals(Position position) {
-        return position.cardinals().stream().filter(this::inBounds).toList();
+        return cardinalsIf(position, p -> true);
     }
 
     public List<Position> cardinalsIf(Position position, Predicate<Position> pred) {
-        return position.cardinals().stream().filter(this::inBounds).filter(pred).toList();
+        List<Position> cardinals = new ArrayList<>(4);
+        for (Direction d : Direction.CARDINALS) {
+            Position p = d.move(position);
+            if (inBounds(p) && pred.test(p)) {
+                cardinals.add(p);
+            }
+        }
+        return cardinals;
     }
 
     public List<Position> to(Position from, Set<Position> path) {
-        return from.cardinals().stream().filter(this::contains).filter(p -> !path.contains(p)).toList();
+        List<Position> to = new ArrayList<>(4);
+        for (Direction d : Direction.CARDINALS) {
+            Position p = d.move(from);
+            if (contains(p) && !path.contains(p)) {
+                to.add(p);
+            }
+        }
+        return to;
     }
 
     public List<char[]> draw(Function<N, Character> mapper) {
@@ -99,12 +223,4 @@ public class Grid<N> {
         }
         return sb;
     }
-
-    public void remove(Position start) {
-        map.remove(start);
-    }
-
-    public boolean contains(Position pos) {
-        return map.containsKey(pos);
-    }
 }
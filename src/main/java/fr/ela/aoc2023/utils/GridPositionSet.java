@@ -0,0 +1,103 @@
+package fr.ela.aoc2023.utils;
+
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Set of positions of a width x height grid, one bit per cell (index y * width + x, like DenseGrid).
+ * Out of bounds positions are never contained, and cannot be added.
+ */
+public class GridPositionSet {
+
+    private final int width;
+    private final int height;
+    private final BitSet bits;
+
+    public GridPositionSet(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.bits = new BitSet(width * height);
+    }
+
+    public GridPositionSet(Grid<?> grid) {
+        this(grid.getWidth(), grid.getHeight());
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    public int index(int x, int y) {
+        if (!inBounds(x, y)) {
+            throw new IndexOutOfBoundsException(new Position(x, y) + " is out of " + width + "x" + height);
+        }
+        return y * width + x;
+    }
+
+    public boolean add(int x, int y) {
+        return addIndex(index(x, y));
+    }
+
+    public boolean add(Position pos) {
+        return add(pos.x(), pos.y());
+    }
+
+    public boolean addIndex(int index) {
+        if (bits.get(index)) {
+            return false;
+        }
+        bits.set(index);
+        return true;
+    }
+
+    public boolean contains(int x, int y) {
+        return inBounds(x, y) && bits.get(y * width + x);
+    }
+
+    public boolean contains(Position pos) {
+        return contains(pos.x(), pos.y());
+    }
+
+    public boolean containsIndex(int index) {
+        return bits.get(index);
+    }
+
+    public void remove(int x, int y) {
+        if (inBounds(x, y)) {
+            bits.clear(y * width + x);
+        }
+    }
+
+    public void remove(Position pos) {
+        remove(pos.x(), pos.y());
+    }
+
+    public int size() {
+        return bits.cardinality();
+    }
+
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    public void clear() {
+        bits.clear();
+    }
+
+    public void forEachIndex(IntConsumer indexConsumer) {
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            indexConsumer.accept(i);
+        }
+    }
+
+    public void forEach(CellConsumer cellConsumer) {
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            cellConsumer.accept(i % width, i / width);
+        }
+    }
+
+    public Stream<Position> stream() {
+        return bits.stream().mapToObj(i -> new Position(i % width, i / width));
+    }
+}
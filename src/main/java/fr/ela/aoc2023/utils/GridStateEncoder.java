@@ -0,0 +1,59 @@
+package fr.ela.aoc2023.utils;
+
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Encoder of the states of a walk on a bounded grid made of a position, a direction and a number of steps
+ * in [0, maxSteps) : the id is ((y * width + x) * 4 + direction) * maxSteps + steps.
+ */
+public class GridStateEncoder<N> implements NodeEncoder<N> {
+
+    public interface Factory<N> {
+        N create(Position position, Direction direction, int steps);
+    }
+
+    private final int width;
+    private final int height;
+    private final int maxSteps;
+    private final Function<N, Position> position;
+    private final Function<N, Direction> direction;
+    private final ToIntFunction<N> steps;
+    private final Factory<N> factory;
+
+    public GridStateEncoder(int width, int height, int maxSteps, Function<N, Position> position, Function<N, Direction> direction,
+                            ToIntFunction<N> steps, Factory<N> factory) {
+        this.width = width;
+        this.height = height;
+        this.maxSteps = maxSteps;
+        this.position = position;
+        this.direction = direction;
+        this.steps = steps;
+        this.factory = factory;
+    }
+
+    public GridStateEncoder(Grid<?> grid, int maxSteps, Function<N, Position> position, Function<N, Direction> direction,
+                            ToIntFunction<N> steps, Factory<N> factory) {
+        this(grid.getWidth(), grid.getHeight(), maxSteps, position, direction, steps, factory);
+    }
+
+    @Override
+    public int size() {
+        return width * height * Direction.CARDINALS.length * maxSteps;
+    }
+
+    @Override
+    public int encode(N node) {
+        Position p = position.apply(node);
+        int cell = p.y() * width + p.x();
+        return (cell * Direction.CARDINALS.length + direction.apply(node).ordinal()) * maxSteps + steps.applyAsInt(node);
+    }
+
+    @Override
+    public N decode(int id) {
+        int s = id % maxSteps;
+        int d = id / maxSteps % Direction.CARDINALS.length;
+        int cell = id / maxSteps / Direction.CARDINALS.length;
+        return factory.create(new Position(cell % width, cell / width), Direction.CARDINALS[d], s);
+    }
+}
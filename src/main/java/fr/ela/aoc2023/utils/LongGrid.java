@@ -0,0 +1,55 @@
+package fr.ela.aoc2023.utils;
+
+import java.util.Arrays;
+
+/**
+ * Dense grid of longs, Long.MIN_VALUE being the empty cell.
+ */
+public class LongGrid extends DenseGrid<Long> {
+
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private final long[] cells;
+
+    public LongGrid(int width, int height) {
+        super(width, height);
+        this.cells = new long[width * height];
+        Arrays.fill(cells, MISSING);
+    }
+
+    public long getLong(int index) {
+        return cells[index];
+    }
+
+    public long getLong(int x, int y) {
+        return inBounds(x, y) ? cells[index(x, y)] : MISSING;
+    }
+
+    public long getLong(Position pos) {
+        return getLong(pos.x(), pos.y());
+    }
+
+    public void putLong(int x, int y, long value) {
+        cells[index(x, y)] = value;
+    }
+
+    @Override
+    protected boolean isSet(int index) {
+        return cells[index] != MISSING;
+    }
+
+    @Override
+    protected Long getAt(int index) {
+        return isSet(index) ? cells[index] : null;
+    }
+
+    @Override
+    protected void setAt(int index, Long value) {
+        cells[index] = value;
+    }
+
+    @Override
+    protected void clear(int index) {
+        cells[index] = MISSING;
+    }
+}
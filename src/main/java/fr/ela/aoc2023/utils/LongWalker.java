@@ -0,0 +1,319 @@
+package fr.ela.aoc2023.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Walker specialised for non negative long costs on a bounded state space : nodes are identified by their NodeEncoder id,
+ * best costs and parents are kept in arrays, and the queue is a BucketQueue of ids, without any boxing.
+ * As with Walker, the cost of a path is the sum of the costs of its nodes, start included.
+ */
+public class LongWalker<N> {
+
+    /**
+     * Engine of shortestCost : this sequential walker, the parallel DeltaStepping, or both, failing when they disagree.
+     */
+    public enum Engine {
+        SEQUENTIAL, PARALLEL, CROSS_CHECK
+    }
+
+    private final Function<N, List<N>> advance;
+    private final ToLongFunction<N> costFunction;
+    private final NodeEncoder<N> encoder;
+    private SearchListener listener = SearchListener.NONE;
+
+    public LongWalker(Function<N, List<N>> advance, ToLongFunction<N> costFunction, NodeEncoder<N> encoder) {
+        this.advance = advance;
+        this.costFunction = costFunction;
+        this.encoder = encoder;
+    }
+
+    public LongWalker<N> withListener(SearchListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public Path<N, Long> findShortestPath(List<N> start, Predicate<N> endReached) {
+        return findShortestPath(start, endReached, n -> 0, true);
+    }
+
+    /**
+     * A* search : nodes are popped by cost + heuristic, where the heuristic is a lower bound of the cost from the node
+     * to the end (0 on end nodes).
+     * When it is also consistent (h(n) <= cost(m) + h(m) for every next node m of n), a node is popped with its best cost :
+     * popped nodes are closed and never expanded again. Otherwise, a node is reopened each time a lower cost is found,
+     * and priorities are kept non decreasing along a path (pathmax).
+     */
+    public Path<N, Long> findShortestPath(List<N> start, Predicate<N> endReached, ToLongFunction<N> heuristic, boolean consistent) {
+        long[] best = new long[encoder.size()];
+        int[] parents = new int[encoder.size()];
+        long time = System.nanoTime();
+        int end = search(start, endReached, heuristic, consistent, best, parents);
+        listener.phase("search", System.nanoTime() - time);
+        if (end < 0) {
+            return new Path<>(List.of(), null);
+        }
+        time = System.nanoTime();
+        Path<N, Long> path = buildPath(end, best[end], parents);
+        listener.phase("path", System.nanoTime() - time);
+        return path;
+    }
+
+    public OptionalLong shortestCost(List<N> start, Predicate<N> endReached) {
+        return shortestCost(start, endReached, n -> 0, true);
+    }
+
+    /**
+     * Same search as findShortestPath, without keeping the parents of the nodes : only the cost of the path is known.
+     */
+    public OptionalLong shortestCost(List<N> start, Predicate<N> endReached, ToLongFunction<N> heuristic, boolean consistent) {
+        long[] best = new long[encoder.size()];
+        long time = System.nanoTime();
+        int end = search(start, endReached, heuristic, consistent, best, null);
+        listener.phase("search", System.nanoTime() - time);
+        return end < 0 ? OptionalLong.empty() : OptionalLong.of(best[end]);
+    }
+
+    public OptionalLong shortestCost(List<N> start, Predicate<N> endReached, Engine engine, long delta) {
+        return switch (engine) {
+            case SEQUENTIAL -> shortestCost(start, endReached);
+            case PARALLEL -> parallel(delta).shortestCost(start, endReached);
+            case CROSS_CHECK -> {
+                OptionalLong sequential = shortestCost(start, endReached);
+                OptionalLong parallel = parallel(delta).shortestCost(start, endReached);
+                if (!sequential.equals(parallel)) {
+                    throw new IllegalStateException("Parallel engine found " + parallel + " instead of " + sequential);
+                }
+                yield sequential;
+            }
+        };
+    }
+
+    public DeltaStepping<N> parallel(long delta) {
+        return new DeltaStepping<>(advance, costFunction, encoder, delta, ForkJoinPool.commonPool()).withListener(listener);
+    }
+
+    /**
+     * Fills best with the best known costs, and parents (when not null) with the id of the previous node of each one.
+     * Returns the id of the end node reached, -1 if there is none.
+     */
+    private int search(List<N> start, Predicate<N> endReached, ToLongFunction<N> heuristic, boolean consistent, long[] best, int[] parents) {
+        int size = encoder.size();
+        Arrays.fill(best, Long.MAX_VALUE);
+        // Without consistency, the priority of the last push of each node tells the stale entries apart.
+        BitSet closed = consistent ? new BitSet(size) : null;
+        long[] priorities = consistent ? null : new long[size];
+        BucketQueue queue = new BucketQueue();
+        int visited = 0;
+        for (N s : start) {
+            int id = encoder.encode(s);
+            long cost = costFunction.applyAsLong(s);
+            if (cost < best[id]) {
+                best[id] = cost;
+                if (parents != null) {
+                    parents[id] = -1;
+                }
+                push(queue, priorities, id, cost + heuristic.applyAsLong(s));
+            }
+        }
+        while (!queue.isEmpty()) {
+            long priority = queue.peekPriority();
+            int id = queue.pop();
+            listener.popped();
+            if (consistent) {
+                if (closed.get(id)) {
+                    listener.stale();
+                    continue;
+                }
+                closed.set(id);
+            } else {
+                if (priorities[id] != priority) {
+                    listener.stale();
+                    continue;
+                }
+                priorities[id] = Long.MIN_VALUE;
+            }
+            listener.visited(++visited);
+            N node = encoder.decode(id);
+            long cost = best[id];
+            if (endReached.test(node)) {
+                return id;
+            }
+            for (N n : advance.apply(node)) {
+                int next = encoder.encode(n);
+                if (consistent && closed.get(next)) {
+                    continue;
+                }
+                long nextCost = cost + costFunction.applyAsLong(n);
+                if (nextCost < best[next]) {
+                    best[next] = nextCost;
+                    if (parents != null) {
+                        parents[next] = id;
+                    }
+                    push(queue, priorities, next, Math.max(priority, nextCost + heuristic.applyAsLong(n)));
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Bidirectional Dijkstra between start and end nodes : a forward search from start follows advance, a backward one
+     * from end follows previous (the nodes from which advance leads to a node), and the side with the lowest next cost
+     * is expanded first. Each time a node is reached by both sides, it is a candidate meeting point ; the search stops
+     * once the lowest costs of both queues add up to the best candidate, which can not be improved anymore.
+     */
+    public Path<N, Long> findShortestPathBidirectional(List<N> start, List<N> end, Function<N, List<N>> previous) {
+        Meeting meeting = new Meeting(encoder.size(), true);
+        long time = System.nanoTime();
+        int id = meet(start, end, previous, meeting);
+        listener.phase("search", System.nanoTime() - time);
+        if (id < 0) {
+            return new Path<>(List.of(), null);
+        }
+        time = System.nanoTime();
+        List<N> path = new ArrayList<>();
+        for (int cur = id; cur != -1; cur = meeting.forwardParents[cur]) {
+            path.add(encoder.decode(cur));
+        }
+        Collections.reverse(path);
+        for (int cur = meeting.backwardParents[id]; cur != -1; cur = meeting.backwardParents[cur]) {
+            path.add(encoder.decode(cur));
+        }
+        listener.phase("path", System.nanoTime() - time);
+        return new Path<>(path, meeting.cost(id));
+    }
+
+    /**
+     * Same search as findShortestPathBidirectional, without keeping the parents of the nodes : only the cost is known.
+     */
+    public OptionalLong shortestCostBidirectional(List<N> start, List<N> end, Function<N, List<N>> previous) {
+        Meeting meeting = new Meeting(encoder.size(), false);
+        long time = System.nanoTime();
+        int id = meet(start, end, previous, meeting);
+        listener.phase("search", System.nanoTime() - time);
+        return id < 0 ? OptionalLong.empty() : OptionalLong.of(meeting.cost(id));
+    }
+
+    /**
+     * Best costs of both sides of a bidirectional search, and the parents of the nodes when the path is wanted.
+     * Parents are towards start for the forward side, towards end for the backward one.
+     */
+    private static class Meeting {
+        final long[] forward;
+        final long[] backward;
+        final int[] forwardParents;
+        final int[] backwardParents;
+
+        Meeting(int size, boolean withParents) {
+            forward = new long[size];
+            backward = new long[size];
+            Arrays.fill(forward, Long.MAX_VALUE);
+            Arrays.fill(backward, Long.MAX_VALUE);
+            forwardParents = withParents ? new int[size] : null;
+            backwardParents = withParents ? new int[size] : null;
+        }
+
+        long cost(int id) {
+            return forward[id] + backward[id];
+        }
+    }
+
+    /**
+     * Returns the id of the best meeting node, -1 if the sides never meet. Its cost is the sum of the costs of both sides.
+     */
+    private int meet(List<N> start, List<N> end, Function<N, List<N>> previous, Meeting meeting) {
+        long[] forward = meeting.forward;
+        long[] backward = meeting.backward;
+        BucketQueue forwardQueue = new BucketQueue();
+        BucketQueue backwardQueue = new BucketQueue();
+        int visited = 0;
+        for (N s : start) {
+            int id = encoder.encode(s);
+            long cost = costFunction.applyAsLong(s);
+            if (cost < forward[id]) {
+                forward[id] = cost;
+                setParent(meeting.forwardParents, id, -1);
+                push(forwardQueue, null, id, cost);
+            }
+        }
+        long best = Long.MAX_VALUE;
+        int meetingId = -1;
+        // The cost of a node is paid when entering it : going backward, it is paid when leaving it.
+        for (N e : end) {
+            int id = encoder.encode(e);
+            backward[id] = 0;
+            setParent(meeting.backwardParents, id, -1);
+            push(backwardQueue, null, id, 0);
+            if (forward[id] < best) {
+                best = forward[id];
+                meetingId = id;
+            }
+        }
+        while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()) {
+            if (forwardQueue.peekPriority() + backwardQueue.peekPriority() >= best) {
+                break;
+            }
+            boolean goForward = forwardQueue.peekPriority() <= backwardQueue.peekPriority();
+            BucketQueue queue = goForward ? forwardQueue : backwardQueue;
+            long[] costs = goForward ? forward : backward;
+            long[] otherCosts = goForward ? backward : forward;
+            int[] parents = goForward ? meeting.forwardParents : meeting.backwardParents;
+            long cost = queue.peekPriority();
+            int id = queue.pop();
+            listener.popped();
+            if (cost > costs[id]) {
+                listener.stale();
+                continue;
+            }
+            listener.visited(++visited);
+            N node = encoder.decode(id);
+            long leaving = goForward ? 0 : costFunction.applyAsLong(node);
+            for (N n : goForward ? advance.apply(node) : previous.apply(node)) {
+                int next = encoder.encode(n);
+                long nextCost = cost + (goForward ? costFunction.applyAsLong(n) : leaving);
+                if (nextCost < costs[next]) {
+                    costs[next] = nextCost;
+                    setParent(parents, next, id);
+                    push(queue, null, next, nextCost);
+                    if (otherCosts[next] != Long.MAX_VALUE && nextCost + otherCosts[next] < best) {
+                        best = nextCost + otherCosts[next];
+                        meetingId = next;
+                    }
+                }
+            }
+        }
+        return meetingId;
+    }
+
+    private static void setParent(int[] parents, int id, int parent) {
+        if (parents != null) {
+            parents[id] = parent;
+        }
+    }
+
+    private void push(BucketQueue queue, long[] priorities, int id, long priority) {
+        if (priorities != null) {
+            priorities[id] = priority;
+        }
+        queue.push(id, priority);
+        listener.pushed(queue.size());
+    }
+
+    private Path<N, Long> buildPath(int id, long cost, int[] parents) {
+        List<N> path = new ArrayList<>();
+        for (int cur = id; cur != -1; cur = parents[cur]) {
+            path.add(encoder.decode(cur));
+        }
+        Collections.reverse(path);
+        return new Path<>(path, cost);
+    }
+}
@@ -0,0 +1,232 @@
+package fr.ela.aoc2023.utils;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Longest simple path between two nodes of a weighted directed graph, nodes being ids in [0, size).
+ * When the graph is acyclic, every path is simple : the longest one is computed in topological order, whatever the size.
+ * Otherwise the search is an exhaustive depth first search, limited to 64 nodes, the nodes of the current path being the bits of a long.
+ * A branch is cut when its length plus the best weight entering each node left cannot beat the best path found.
+ * The first levels of the search tree are split into tasks of the fork-join pool, which share the best path found.
+ */
+public class LongestPath {
+    public static final int MAX_NODES = Long.SIZE;
+
+    // Levels of the search tree split into fork-join tasks, deeper levels are searched by a single task.
+    private static final int SPLIT_DEPTH = 6;
+
+    private final int size;
+    private final List<List<int[]>> edges = new ArrayList<>();
+    private final ForkJoinPool pool;
+    private SearchListener listener = SearchListener.NONE;
+    // Topological order, computed once for the current edges : null until then, and stays null when there are cycles.
+    private int[] order;
+    private boolean ordered;
+
+    public LongestPath(int size, ForkJoinPool pool) {
+        this.size = size;
+        this.pool = pool;
+        for (int i = 0; i < size; i++) {
+            edges.add(new ArrayList<>());
+        }
+    }
+
+    public LongestPath withListener(SearchListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public void addEdge(int from, int to, int weight) {
+        edges.get(from).add(new int[]{to, weight});
+        ordered = false;
+    }
+
+    public boolean isAcyclic() {
+        return topologicalOrder() != null;
+    }
+
+    /**
+     * Whether longest can solve the graph : when it is acyclic, or small enough for the exhaustive search.
+     */
+    public boolean isSolvable() {
+        return size <= MAX_NODES || isAcyclic();
+    }
+
+    /**
+     * Length of the longest path from start to end going through each node at most once, empty if end cannot be reached.
+     */
+    public OptionalInt longest(int start, int end) {
+        int[] order = topologicalOrder();
+        if (order != null) {
+            return longestInOrder(order, start, end);
+        }
+        if (size > MAX_NODES) {
+            throw new IllegalStateException("The graph has cycles and more than " + MAX_NODES + " nodes : " + size);
+        }
+        long time = System.nanoTime();
+        Search search = new Search(end);
+        int remaining = 0;
+        for (int node = 0; node < size; node++) {
+            if (node != start) {
+                remaining += search.maxIn[node];
+            }
+        }
+        pool.invoke(search.new Branch(start, 1L << start, 0, remaining, 0));
+        listener.counter("branches explored", search.explored.sum());
+        listener.counter("branches pruned", search.pruned.sum());
+        listener.counter("tasks forked", search.forked.sum());
+        listener.phase("search", System.nanoTime() - time);
+        int best = search.best.get();
+        return best < 0 ? OptionalInt.empty() : OptionalInt.of(best);
+    }
+
+    private int[] topologicalOrder() {
+        if (!ordered) {
+            order = kahn();
+            ordered = true;
+        }
+        return order;
+    }
+
+    /**
+     * Kahn's algorithm : nodes are taken once all the edges entering them are. Null if some nodes are never taken, which
+     * means they are on a cycle or reachable from one.
+     */
+    private int[] kahn() {
+        int[] entering = new int[size];
+        edges.forEach(out -> out.forEach(edge -> entering[edge[0]]++));
+        int[] sorted = new int[size];
+        int count = 0;
+        for (int node = 0; node < size; node++) {
+            if (entering[node] == 0) {
+                sorted[count++] = node;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            for (int[] edge : edges.get(sorted[i])) {
+                if (--entering[edge[0]] == 0) {
+                    sorted[count++] = edge[0];
+                }
+            }
+        }
+        return count == size ? sorted : null;
+    }
+
+    private OptionalInt longestInOrder(int[] order, int start, int end) {
+        long time = System.nanoTime();
+        int[] longest = new int[size];
+        Arrays.fill(longest, -1);
+        longest[start] = 0;
+        for (int node : order) {
+            if (longest[node] >= 0) {
+                for (int[] edge : edges.get(node)) {
+                    longest[edge[0]] = Math.max(longest[edge[0]], longest[node] + edge[1]);
+                }
+            }
+        }
+        listener.phase("topological", System.nanoTime() - time);
+        return longest[end] < 0 ? OptionalInt.empty() : OptionalInt.of(longest[end]);
+    }
+
+    private class Search {
+        private final int end;
+        private final int[][] targets = new int[size][];
+        private final int[][] weights = new int[size][];
+        // Best weight of the edges entering each node.
+        private final int[] maxIn = new int[size];
+        private final AtomicInteger best = new AtomicInteger(-1);
+        private final LongAdder explored = new LongAdder();
+        private final LongAdder pruned = new LongAdder();
+        private final LongAdder forked = new LongAdder();
+
+        Search(int end) {
+            this.end = end;
+            for (int node = 0; node < size; node++) {
+                List<int[]> out = edges.get(node);
+                targets[node] = new int[out.size()];
+                weights[node] = new int[out.size()];
+                for (int i = 0; i < out.size(); i++) {
+                    int[] edge = out.get(i);
+                    targets[node][i] = edge[0];
+                    weights[node][i] = edge[1];
+                    maxIn[edge[0]] = Math.max(maxIn[edge[0]], edge[1]);
+                }
+            }
+        }
+
+        /**
+         * A subtree of the search. Branches count the nodes they explore and the branches they cut in their own fields,
+         * added to the search totals once done.
+         */
+        private class Branch extends RecursiveAction {
+            @Serial
+            private static final long serialVersionUID = 1L;
+
+            private final int node;
+            private final long path;
+            private final int length;
+            private final int remaining;
+            private final int depth;
+            private long nodes;
+            private long cuts;
+
+            Branch(int node, long path, int length, int remaining, int depth) {
+                this.node = node;
+                this.path = path;
+                this.length = length;
+                this.remaining = remaining;
+                this.depth = depth;
+            }
+
+            @Override
+            protected void compute() {
+                if (depth == SPLIT_DEPTH || node == end) {
+                    search(node, path, length, remaining);
+                    explored.add(nodes);
+                    pruned.add(cuts);
+                    return;
+                }
+                List<Branch> branches = new ArrayList<>();
+                int[] to = targets[node];
+                for (int i = 0; i < to.length; i++) {
+                    int next = to[i];
+                    if ((path & (1L << next)) == 0) {
+                        branches.add(new Branch(next, path | (1L << next), length + weights[node][i], remaining - maxIn[next], depth + 1));
+                    }
+                }
+                forked.add(branches.size());
+                explored.increment();
+                invokeAll(branches);
+            }
+
+            private void search(int node, long path, int length, int remaining) {
+                nodes++;
+                if (node == end) {
+                    best.accumulateAndGet(length, Math::max);
+                    return;
+                }
+                int[] to = targets[node];
+                int[] weight = weights[node];
+                for (int i = 0; i < to.length; i++) {
+                    int next = to[i];
+                    if ((path & (1L << next)) == 0) {
+                        int left = remaining - maxIn[next];
+                        if (length + weight[i] + left > best.get()) {
+                            search(next, path | (1L << next), length + weight[i], left);
+                        } else {
+                            cuts++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package fr.ela.aoc2023.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An ASCII input file mapped in memory, split in lines without decoding it nor copying it :
+ * lines are slices (offset / length) of the mapped buffer.
+ * Lines are split like Files.lines does : on '\n', with a trailing '\r' removed.
+ */
+public class MappedInput {
+
+    private final ByteBuffer buffer;
+    private int[] starts;
+    private int[] lengths;
+    private int lineCount;
+
+    MappedInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.starts = new int[1024];
+        this.lengths = new int[1024];
+        indexLines();
+    }
+
+    public static MappedInput map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(path + " is too big to be mapped at once : " + size + " bytes");
+            }
+            // The mapping stays valid once the channel is closed.
+            return new MappedInput(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+    }
+
+    private void indexLines() {
+        int size = buffer.limit();
+        int start = 0;
+        for (int i = 0; i < size; i++) {
+            if (buffer.get(i) == '\n') {
+                addLine(start, i);
+                start = i + 1;
+            }
+        }
+        if (start < size) {
+            addLine(start, size);
+        }
+    }
+
+    private void addLine(int start, int end) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (lineCount == starts.length) {
+            starts = Arrays.copyOf(starts, lineCount * 2);
+            lengths = Arrays.copyOf(lengths, lineCount * 2);
+        }
+        starts[lineCount] = start;
+        lengths[lineCount] = end - start;
+        lineCount++;
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+
+    public int lineStart(int line) {
+        return starts[line];
+    }
+
+    public int lineLength(int line) {
+        return lengths[line];
+    }
+
+    public byte byteAt(int offset) {
+        return buffer.get(offset);
+    }
+
+    public ByteSlice line(int line) {
+        return new ByteSlice(buffer, starts[line], lengths[line]);
+    }
+
+    /**
+     * A slice of the mapped buffer. As a CharSequence, each byte is a char, so that regular expressions can match it without decoding.
+     * Slices are equal when they hold the same bytes, wherever they are in the buffer.
+     */
+    public static final class ByteSlice implements CharSequence {
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int length;
+
+        ByteSlice(ByteBuffer buffer, int offset, int length) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        public byte byteAt(int index) {
+            return buffer.get(offset + index);
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public ByteSlice subSequence(int start, int end) {
+            return new ByteSlice(buffer, offset + start, end - start);
+        }
+
+        public boolean isEmpty() {
+            return length == 0;
+        }
+
+        public long parseLong() {
+            return parseLong(0, length);
+        }
+
+        public int parseInt(int from, int to) {
+            return Math.toIntExact(parseLong(from, to));
+        }
+
+        /**
+         * Parses the decimal number between from (inclusive) and to (exclusive), with an optional sign.
+         */
+        public long parseLong(int from, int to) {
+            if (from >= to) {
+                throw new NumberFormatException("Empty number in " + this);
+            }
+            boolean negative = false;
+            byte first = byteAt(from);
+            if (first == '-' || first == '+') {
+                negative = first == '-';
+                from++;
+                if (from == to) {
+                    throw new NumberFormatException("No digits in " + this);
+                }
+            }
+            long value = 0;
+            for (int i = from; i < to; i++) {
+                int digit = byteAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new NumberFormatException("Illegal digit '" + charAt(i) + "' in " + this);
+                }
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ByteSlice other) || other.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (byteAt(i) != other.byteAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 1;
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + byteAt(i);
+            }
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            return new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package fr.ela.aoc2023.utils;
+
+/**
+ * Receives the neighbours of a cell one by one, with the direction leading to it : no list, no Position allocated.
+ */
+@FunctionalInterface
+public interface NeighbourConsumer {
+    void accept(Direction direction, int x, int y);
+}
@@ -0,0 +1,46 @@
+package fr.ela.aoc2023.utils;
+
+/**
+ * Maps the nodes of a bounded state space to dense ids in [0, size()), so that searches can keep their
+ * visited / distance / parent tables in flat arrays.
+ */
+public interface NodeEncoder<N> {
+
+    int size();
+
+    int encode(N node);
+
+    N decode(int id);
+
+    /**
+     * Positions of the width x height window whose top left corner is (minX, minY), row by row.
+     * Encoding a position out of the window throws an IllegalArgumentException.
+     */
+    static NodeEncoder<Position> positions(int minX, int minY, int width, int height) {
+        return new NodeEncoder<>() {
+            @Override
+            public int size() {
+                return width * height;
+            }
+
+            @Override
+            public int encode(Position p) {
+                int x = p.x() - minX;
+                int y = p.y() - minY;
+                if (x < 0 || y < 0 || x >= width || y >= height) {
+                    throw new IllegalArgumentException(p + " is out of the " + width + "x" + height + " window at (" + minX + ", " + minY + ")");
+                }
+                return y * width + x;
+            }
+
+            @Override
+            public Position decode(int id) {
+                return new Position(minX + id % width, minY + id / width);
+            }
+        };
+    }
+
+    static NodeEncoder<Position> positions(Grid<?> grid) {
+        return positions(0, 0, grid.getWidth(), grid.getHeight());
+    }
+}
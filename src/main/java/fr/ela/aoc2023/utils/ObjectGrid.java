@@ -0,0 +1,35 @@
+package fr.ela.aoc2023.utils;
+
+/**
+ * Dense grid of any value type, each cell holding a reference to its value : for values too many for a ByteGrid palette.
+ */
+public class ObjectGrid<N> extends DenseGrid<N> {
+
+    private final Object[] cells;
+
+    public ObjectGrid(int width, int height) {
+        super(width, height);
+        this.cells = new Object[width * height];
+    }
+
+    @Override
+    protected boolean isSet(int index) {
+        return cells[index] != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected N getAt(int index) {
+        return (N) cells[index];
+    }
+
+    @Override
+    protected void setAt(int index, N value) {
+        cells[index] = value;
+    }
+
+    @Override
+    protected void clear(int index) {
+        cells[index] = null;
+    }
+}
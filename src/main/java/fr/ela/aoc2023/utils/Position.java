@@ -1,6 +1,6 @@
 package fr.ela.aoc2023.utils;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -15,11 +15,24 @@ public record Position(int x, int y) {
     }
 
     public List<Position> cardinals() {
-        return cards().toList();
+        List<Position> cardinals = new ArrayList<>(4);
+        for (Direction d : Direction.CARDINALS) {
+            cardinals.add(d.move(this));
+        }
+        return cardinals;
     }
 
     public Stream<Position> cards() {
-        return Arrays.stream(Direction.values()).map(d -> d.move(this));
+        return cardinals().stream();
+    }
+
+    /**
+     * Visits the four neighbours of (x, y), without bounds.
+     */
+    public static void forEachCardinal(int x, int y, NeighbourConsumer consumer) {
+        for (Direction d : Direction.CARDINALS) {
+            consumer.accept(d, x + d.xOffset, y + d.yOffset);
+        }
     }
 
     public Position modulo(int xmax, int ymax) {
@@ -0,0 +1,30 @@
+package fr.ela.aoc2023.utils;
+
+/**
+ * Notified by the walkers of what happens during a search. Every method does nothing by default.
+ */
+public interface SearchListener {
+
+    SearchListener NONE = new SearchListener() {
+    };
+
+    default void pushed(int queueSize) {
+    }
+
+    default void popped() {
+    }
+
+    // Popped entry of a node already visited, or pushed again with a lower cost since.
+    default void stale() {
+    }
+
+    default void visited(int visitedSize) {
+    }
+
+    default void phase(String phase, long nanos) {
+    }
+
+    // Searches without a queue, like depth first ones, report what they did as named counts.
+    default void counter(String name, long value) {
+    }
+}
@@ -0,0 +1,76 @@
+package fr.ela.aoc2023.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * What a search did : nodes pushed in and popped from the queue, stale pops skipped, peak queue and visited sizes,
+ * named counters of the searches without a queue, and time spent per phase.
+ */
+public record SearchMetrics(long pushed, long popped, long stale, int peakQueueSize, int peakVisitedSize, Map<String, Long> counters,
+                            Map<String, Long> phaseNanos) {
+
+    // The queue figures are left out when no queue was used.
+    @Override
+    public String toString() {
+        Stream<String> queue = pushed == 0 && popped == 0 ? Stream.empty() : Stream.of("pushed " + pushed + ", popped " + popped
+                + " (" + stale + " stale), peak queue " + peakQueueSize + ", peak visited " + peakVisitedSize);
+        return Stream.of(queue,
+                        counters.entrySet().stream().map(e -> e.getKey() + " " + e.getValue()),
+                        phaseNanos.entrySet().stream().map(e -> e.getKey() + " " + e.getValue() / 1_000_000 + " ms"))
+                .flatMap(s -> s)
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Listener recording the metrics of the searches it is given to. Not thread safe.
+     */
+    public static class Recorder implements SearchListener {
+        private long pushed;
+        private long popped;
+        private long stale;
+        private int peakQueueSize;
+        private int peakVisitedSize;
+        private final Map<String, Long> counters = new LinkedHashMap<>();
+        private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+
+        @Override
+        public void pushed(int queueSize) {
+            pushed++;
+            peakQueueSize = Math.max(peakQueueSize, queueSize);
+        }
+
+        @Override
+        public void popped() {
+            popped++;
+        }
+
+        @Override
+        public void stale() {
+            stale++;
+        }
+
+        @Override
+        public void visited(int visitedSize) {
+            peakVisitedSize = Math.max(peakVisitedSize, visitedSize);
+        }
+
+        @Override
+        public void phase(String phase, long nanos) {
+            phaseNanos.merge(phase, nanos, Long::sum);
+        }
+
+        @Override
+        public void counter(String name, long value) {
+            counters.merge(name, value, Long::sum);
+        }
+
+        public SearchMetrics metrics() {
+            return new SearchMetrics(pushed, popped, stale, peakQueueSize, peakVisitedSize,
+                    Collections.unmodifiableMap(new LinkedHashMap<>(counters)), Collections.unmodifiableMap(new LinkedHashMap<>(phaseNanos)));
+        }
+    }
+}
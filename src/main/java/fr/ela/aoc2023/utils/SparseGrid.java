@@ -0,0 +1,73 @@
+package fr.ela.aoc2023.utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Grid keeping its non empty cells in a map : for grids that are mostly empty.
+ */
+public class SparseGrid<N> extends Grid<N> {
+
+    final Map<Position, N> map = new HashMap<>();
+
+    public SparseGrid(int width, int height) {
+        super(width, height);
+    }
+
+    @Override
+    public N get(int x, int y) {
+        return map.get(new Position(x, y));
+    }
+
+    @Override
+    public N get(Position pos) {
+        return map.get(pos);
+    }
+
+    @Override
+    public void put(int x, int y, N value) {
+        put(new Position(x, y), value);
+    }
+
+    @Override
+    public void put(Position pos, N value) {
+        map.put(pos, value);
+    }
+
+    @Override
+    public void remove(int x, int y) {
+        map.remove(new Position(x, y));
+    }
+
+    @Override
+    public void remove(Position pos) {
+        map.remove(pos);
+    }
+
+    @Override
+    public boolean contains(Position pos) {
+        return map.containsKey(pos);
+    }
+
+    @Override
+    public boolean contains(int x, int y) {
+        return map.containsKey(new Position(x, y));
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public Stream<Position> stream() {
+        return map.keySet().stream();
+    }
+
+    @Override
+    public List<Position> getPositionsOf(N value) {
+        return map.entrySet().stream().filter(e -> e.getValue().equals(value)).map(Map.Entry::getKey).toList();
+    }
+}
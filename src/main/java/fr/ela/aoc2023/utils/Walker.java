@@ -1,30 +1,34 @@
 package fr.ela.aoc2023.utils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.function.BiPredicate;
 import java.util.function.BinaryOperator;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.Predicate;
 
 public class Walker<N, C extends Comparable<C>> {
     private final Function<N, List<N>> advance;
     private final Function<N, C> costFunction;
     private final BinaryOperator<C> costAccumulator;
-    private final Comparator<State<N, C>> comparator;
+    private final Comparator<Step<N, C>> comparator;
+    private SearchListener listener = SearchListener.NONE;
 
     public Walker(Function<N, List<N>> advance, Function<N, C> costFunction, Comparator<N> tieBreaker, BinaryOperator<C> accumulator) {
         this.advance = advance;
         this.costFunction = costFunction;
         this.costAccumulator = accumulator;
-        Comparator<State<N, C>> costComparator = Comparator.comparing(s -> s.cost);
+        Comparator<Step<N, C>> costComparator = Comparator.comparing(s -> s.cost);
         if (tieBreaker != null) {
-            Comparator<State<N, C>> comp = (s1, s2) -> tieBreaker.compare(s1.node, s2.node);
+            Comparator<Step<N, C>> comp = (s1, s2) -> tieBreaker.compare(s1.node, s2.node);
             this.comparator = costComparator.thenComparing(comp);
         } else {
             this.comparator = costComparator;
@@ -35,6 +39,11 @@ public class Walker<N, C extends Comparable<C>> {
         this(advance, costFunction, null, accumulator);
     }
 
+    public Walker<N, C> withListener(SearchListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
     public static <K> Walker<K, Long> longWalker(Function<K, List<K>> advance, Function<K, Long> costFunction) {
         return new Walker<>(advance, costFunction, Long::sum);
     }
@@ -48,50 +57,186 @@ public class Walker<N, C extends Comparable<C>> {
     }
 
 
+    /**
+     * The queue holds steps, which only know the node they come from : the previous node of each visited one is kept in
+     * a map, instead of a chain of states holding the whole search tree.
+     */
     public Path<N, C> findShortestPath(List<N> start, Predicate<N> endReached) {
-        HashSet<N> visited = new HashSet<>();
-        PriorityQueue<State<N, C>> queue = new PriorityQueue<>(comparator);
+        long time = System.nanoTime();
+        Visits<N> visits = new Visits<>();
+        PriorityQueue<Step<N, C>> queue = new PriorityQueue<>(comparator);
 
-        start.stream().map(s -> new State<>(s, costFunction.apply(s), null)).forEach(queue::add);
+        start.forEach(s -> push(queue, new Step<>(s, costFunction.apply(s), null)));
         while (!queue.isEmpty()) {
-            State<N, C> cur = queue.remove();
-            if (visited.contains(cur.node)) {
+            Step<N, C> cur = queue.remove();
+            listener.popped();
+            if (!visits.visit(cur.node, cur.from)) {
+                listener.stale();
                 continue;
             }
-            visited.add(cur.node);
+            listener.visited(visits.size());
             if (endReached.test(cur.node)) {
-                return buildPath(cur);
+                listener.phase("search", System.nanoTime() - time);
+                time = System.nanoTime();
+                Path<N, C> path = buildPath(cur, visits);
+                listener.phase("path", System.nanoTime() - time);
+                return path;
             }
-            List<N> next = advance.apply(cur.node);
-            for (N n : next) {
-                State<N, C> s = new State<>(n, costAccumulator.apply(cur.cost, costFunction.apply(n)), cur);
-                queue.add(s);
+            for (N n : advance.apply(cur.node)) {
+                if (!visits.visited(n)) {
+                    push(queue, new Step<>(n, costAccumulator.apply(cur.cost, costFunction.apply(n)), cur.node));
+                }
             }
         }
+        listener.phase("search", System.nanoTime() - time);
         return new Path<>(List.of(), null);
     }
 
+    /**
+     * Neighbours of a node given by its id : each neighbour id is passed to the visitor.
+     */
+    public interface IdNeighbours {
+        void forEach(int id, IntConsumer visitor);
+    }
+
+    /**
+     * Number of steps from the closest start node to every node, nodes being ids in [0, size) : -1 for the nodes not
+     * reached within maxSteps. Neighbours are computed from the ids, so that the search does not allocate per node.
+     * Breadth first, with the ids of the current frontier and of the next one in two arrays swapped after each step.
+     */
+    public static int[] stepDistances(int size, int[] start, int maxSteps, IdNeighbours neighbours, SearchListener listener) {
+        long time = System.nanoTime();
+        Frontier frontier = new Frontier(size, start);
+        for (int step = 1; step <= maxSteps && !frontier.isEmpty(); step++) {
+            frontier.expand(step, neighbours);
+            listener.visited(frontier.reached);
+        }
+        listener.phase("search", System.nanoTime() - time);
+        return frontier.distances;
+    }
+
+    /**
+     * Visitor of the neighbours of the current frontier, adding the ones not reached yet to the next frontier.
+     */
+    private static class Frontier implements IntConsumer {
+        private final int[] distances;
+        private int[] current;
+        private int[] next;
+        private int currentSize;
+        private int nextSize;
+        private int step;
+        private int reached;
+
+        Frontier(int size, int[] start) {
+            distances = new int[size];
+            Arrays.fill(distances, -1);
+            current = new int[Math.max(16, start.length)];
+            next = new int[current.length];
+            for (int id : start) {
+                if (distances[id] < 0) {
+                    distances[id] = 0;
+                    current[currentSize++] = id;
+                }
+            }
+            reached = currentSize;
+        }
+
+        boolean isEmpty() {
+            return currentSize == 0;
+        }
+
+        void expand(int step, IdNeighbours neighbours) {
+            this.step = step;
+            nextSize = 0;
+            for (int i = 0; i < currentSize; i++) {
+                neighbours.forEach(current[i], this);
+            }
+            int[] tmp = current;
+            current = next;
+            next = tmp;
+            currentSize = nextSize;
+            reached += nextSize;
+        }
+
+        @Override
+        public void accept(int id) {
+            if (distances[id] < 0) {
+                distances[id] = step;
+                if (nextSize == next.length) {
+                    next = Arrays.copyOf(next, nextSize * 2);
+                }
+                next[nextSize++] = id;
+            }
+        }
+    }
+
+    private <T> void push(Collection<T> queue, T step) {
+        queue.add(step);
+        listener.pushed(queue.size());
+    }
+
+    /**
+     * The visited nodes, and the node each one was reached from.
+     */
+    private static class Visits<N> {
+        private final Map<N, N> parents = new HashMap<>();
+
+        /**
+         * Returns false if the node was already visited.
+         */
+        boolean visit(N node, N from) {
+            if (parents.containsKey(node)) {
+                return false;
+            }
+            parents.put(node, from);
+            return true;
+        }
+
+        boolean visited(N node) {
+            return parents.containsKey(node);
+        }
+
+        N from(N node) {
+            return parents.get(node);
+        }
+
+        int size() {
+            return parents.size();
+        }
+    }
+
+    private static <K, V extends Comparable<V>> Path<K, V> buildPath(Step<K, V> end, Visits<K> visits) {
+        LinkedList<K> path = new LinkedList<>();
+        for (K cur = end.node(); cur != null; cur = visits.from(cur)) {
+            path.addFirst(cur);
+        }
+        return new Path<>(path, end.cost());
+    }
+
     public Collection<Path<N, C>> findAllPaths(N start, Predicate<N> endReached) {
         return findAllPaths(start, endReached, Object::equals);
     }
 
     public Collection<Path<N, C>> findAllPaths(N start, Predicate<N> endReached, BiPredicate<N, N> alreadySteppedHere) {
+        long time = System.nanoTime();
         var queue = new LinkedList<State<N, C>>();
-        queue.add(new State<>(start, costFunction.apply(start), null));
+        push(queue, new State<>(start, costFunction.apply(start), null));
         List<Path<N, C>> paths = new ArrayList<>();
 
         BiPredicate<State<N, C>, N> alreadySteppedFilter = (state, node) -> state.anyPrevStateMatches(alreadySteppedHere, node);
         while (!queue.isEmpty()) {
             var cur = queue.removeFirst();
+            listener.popped();
             if (endReached.test(cur.node)) {
                 paths.add(buildPath(cur));
             } else {
                 advance.apply(cur.node).stream()
                         .filter(n -> !alreadySteppedFilter.test(cur, n))
                         .map(n -> new State<>(n, costAccumulator.apply(cur.cost, costFunction.apply(n)), cur))
-                        .forEach(queue::add);
+                        .forEach(s -> push(queue, s));
             }
         }
+        listener.phase("search", System.nanoTime() - time);
         return paths;
     }
 
@@ -106,6 +251,9 @@ public class Walker<N, C extends Comparable<C>> {
         return new Path<>(path, cost);
     }
 
+    record Step<N, C>(N node, C cost, N from) {
+    }
+
     record State<N, C>(N node, C cost, State<N, C> prev) {
 
         @Override
@@ -0,0 +1,74 @@
+package fr.ela.aoc2023;
+
+import fr.ela.aoc2023.D05.Piecewise;
+import fr.ela.aoc2023.D05.TTTMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class D05Test {
+
+    // The map applied as the puzzle describes it : the value moves by the offset of the entry holding it, if any.
+    private static long apply(TTTMap map, long value) {
+        return map.entriesList().stream()
+                .filter(e -> e.range().start() <= value && value <= e.range().end())
+                .mapToLong(e -> value + e.offset())
+                .findFirst().orElse(value);
+    }
+
+    private static TTTMap randomMap(Random random, String name) {
+        List<String> entries = new ArrayList<>();
+        long source = random.nextInt(10);
+        for (int i = 0; i < 1 + random.nextInt(6); i++) {
+            long length = 1 + random.nextInt(30);
+            entries.add(random.nextInt(200) + " " + source + " " + length);
+            source += length + random.nextInt(3) * random.nextInt(20);
+        }
+        return TTTMap.parse(name, entries.stream());
+    }
+
+    @Test
+    void piecewiseMatchesItsMap() {
+        TTTMap map = TTTMap.parse("seed-to-soil", Stream.of("50 98 2", "52 50 48"));
+        Piecewise piecewise = Piecewise.of(map);
+        for (long value = 0; value < 120; value++) {
+            assertEquals(apply(map, value), piecewise.applyAsLong(value));
+        }
+    }
+
+    @Test
+    void compositionAppliesTheMapsInSequence() {
+        Random random = new Random(5);
+        for (int i = 0; i < 200; i++) {
+            List<TTTMap> maps = Stream.generate(() -> randomMap(random, "map")).limit(1 + random.nextInt(7)).toList();
+            Piecewise composed = maps.stream().map(Piecewise::of).reduce(Piecewise::then).orElseThrow();
+            for (long value = 0; value < 400; value++) {
+                long expected = value;
+                for (TTTMap map : maps) {
+                    expected = apply(map, expected);
+                }
+                assertEquals(expected, composed.applyAsLong(value), "value " + value + " through " + maps);
+            }
+        }
+    }
+
+    @Test
+    void lowestOfARangeIsItsLowestImage() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            Piecewise composed = Stream.generate(() -> randomMap(random, "map")).limit(3).map(Piecewise::of).reduce(Piecewise::then).orElseThrow();
+            long start = random.nextInt(200);
+            long end = start + random.nextInt(100);
+            long expected = Long.MAX_VALUE;
+            for (long value = start; value <= end; value++) {
+                expected = Math.min(expected, composed.applyAsLong(value));
+            }
+            assertEquals(expected, composed.lowest(new D05.Range(start, end)));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package fr.ela.aoc2023;
+
+import fr.ela.aoc2023.D12.HotSprings;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class D12Test {
+
+    private static final int MAX_COPIES = 6;
+
+    // Every row of the test and real inputs, counted on the row actually unfolded.
+    private static void checkUnfoldedArrangements(Path input) {
+        D12 day = new D12();
+        for (HotSprings springs : day.parse(input)) {
+            for (int copies = 1; copies <= MAX_COPIES; copies++) {
+                long expected = D12.count(springs.unfold(copies));
+                assertEquals(expected, springs.unfoldedArrangements(copies), springs + " unfolded " + copies + " times");
+                assertEquals(BigInteger.valueOf(expected), springs.exactUnfoldedArrangements(copies), springs + " unfolded " + copies + " times");
+            }
+        }
+    }
+
+    @Test
+    void unfoldedArrangementsMatchTheUnfoldedRows() {
+        D12 day = new D12();
+        Stream.of(day.getTestInputPath(), day.getInputPath()).forEach(D12Test::checkUnfoldedArrangements);
+    }
+
+    @Test
+    void longCountFailsWhereTheExactCountGoesOn() {
+        HotSprings springs = HotSprings.parse("?????????????? 1,1");
+        BigInteger exact = springs.exactUnfoldedArrangements(60);
+        assertTrue(exact.compareTo(BigInteger.valueOf(Long.MAX_VALUE)) > 0);
+        assertThrows(ArithmeticException.class, () -> springs.unfoldedArrangements(60));
+    }
+}
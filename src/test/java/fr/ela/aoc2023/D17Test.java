@@ -0,0 +1,25 @@
+package fr.ela.aoc2023;
+
+import fr.ela.aoc2023.utils.SearchListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class D17Test {
+
+    // Null is the default bidirectional search.
+    private static final List<String> ENGINES = Arrays.asList(null, "ASTAR", "SEQUENTIAL", "PARALLEL", "CROSS_CHECK");
+
+    @Test
+    void everyEngineFindsTheTestHeatLoss() {
+        D17 day = new D17();
+        D17.City city = day.parse(day.getTestInputPath());
+        for (String engine : ENGINES) {
+            assertEquals(102, city.leastHeatLoss(false, engine, SearchListener.NONE), "crucible with " + engine);
+            assertEquals(94, city.leastHeatLoss(true, engine, SearchListener.NONE), "ultra crucible with " + engine);
+        }
+    }
+}
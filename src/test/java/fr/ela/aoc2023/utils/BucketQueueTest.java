@@ -0,0 +1,94 @@
+package fr.ela.aoc2023.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BucketQueueTest {
+
+    @Test
+    void popsInPriorityOrderLastPushedFirst() {
+        BucketQueue queue = new BucketQueue();
+        queue.push(1, 5);
+        queue.push(2, 3);
+        queue.push(3, 5);
+        assertEquals(3, queue.size());
+        assertEquals(3, queue.peekPriority());
+        assertEquals(2, queue.pop());
+        assertEquals(5, queue.peekPriority());
+        assertEquals(3, queue.pop());
+        assertEquals(1, queue.pop());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void growsWhenPrioritiesGoBeyondItsSpan() {
+        BucketQueue queue = new BucketQueue(4);
+        queue.push(1, 0);
+        queue.push(2, 3);
+        queue.push(3, 100);
+        queue.push(4, 1000);
+        assertEquals(1, queue.pop());
+        assertEquals(2, queue.pop());
+        assertEquals(100, queue.peekPriority());
+        assertEquals(3, queue.pop());
+        assertEquals(4, queue.pop());
+    }
+
+    @Test
+    void growsAfterWrappingAround() {
+        BucketQueue queue = new BucketQueue(8);
+        // A window of 3 priorities slides until it has wrapped around the circular array several times.
+        for (int i = 0; i <= 40; i++) {
+            queue.push(i, i + 3);
+            if (i >= 3) {
+                assertEquals(i, queue.peekPriority());
+                assertEquals(i - 3, queue.pop());
+            }
+        }
+        // Spanning more than the capacity from a current priority that is not a multiple of it.
+        queue.push(500, 91);
+        long[] priorities = {41, 42, 43, 91};
+        int[] ids = {38, 39, 40, 500};
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(priorities[i], queue.peekPriority());
+            assertEquals(ids[i], queue.pop());
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void popsLikeAPriorityQueueForMonotonePushes() {
+        Random random = new Random(17);
+        BucketQueue queue = new BucketQueue(2);
+        PriorityQueue<long[]> reference = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        long last = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (reference.isEmpty() || random.nextInt(3) > 0) {
+                long priority = last + random.nextInt(i % 100 == 0 ? 5000 : 20);
+                queue.push(i, priority);
+                reference.add(new long[]{priority, i});
+            } else {
+                long priority = reference.remove()[0];
+                assertEquals(priority, queue.peekPriority());
+                queue.pop();
+                last = priority;
+            }
+            assertEquals(reference.size(), queue.size());
+        }
+    }
+
+    @Test
+    void rejectsPrioritiesBelowTheLastPopped() {
+        BucketQueue queue = new BucketQueue();
+        queue.push(1, 10);
+        queue.pop();
+        assertThrows(IllegalArgumentException.class, () -> queue.push(2, 9));
+        assertThrows(IllegalStateException.class, queue::peekPriority);
+    }
+}
@@ -0,0 +1,55 @@
+package fr.ela.aoc2023.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GridPositionSetTest {
+
+    @Test
+    void addsEachPositionOnce() {
+        GridPositionSet set = new GridPositionSet(3, 2);
+        assertTrue(set.add(2, 1));
+        assertFalse(set.add(new Position(2, 1)));
+        assertTrue(set.add(0, 0));
+        assertEquals(2, set.size());
+        assertTrue(set.contains(new Position(2, 1)));
+        assertFalse(set.contains(1, 0));
+        set.remove(2, 1);
+        assertFalse(set.contains(2, 1));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    void outOfBoundsPositionsAreNeverContained() {
+        GridPositionSet set = new GridPositionSet(3, 2);
+        set.add(2, 0);
+        // (3, 0) would have the index of (0, 1) if bounds were not checked.
+        assertFalse(set.contains(3, 0));
+        assertFalse(set.contains(-1, 1));
+        assertFalse(set.contains(0, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.add(3, 0));
+    }
+
+    @Test
+    void visitsPositionsInIndexOrder() {
+        GridPositionSet set = new GridPositionSet(4, 3);
+        set.add(1, 2);
+        set.add(3, 0);
+        set.add(0, 1);
+        assertEquals(Set.of(new Position(3, 0), new Position(0, 1), new Position(1, 2)), set.stream().collect(Collectors.toSet()));
+        List<Integer> indexes = new ArrayList<>();
+        set.forEachIndex(indexes::add);
+        assertEquals(List.of(3, 4, 9), indexes);
+        set.clear();
+        assertTrue(set.isEmpty());
+    }
+}
@@ -0,0 +1,58 @@
+package fr.ela.aoc2023.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongIntMapTest {
+
+    @Test
+    void keepsTheZeroKeyApart() {
+        LongIntMap map = new LongIntMap();
+        assertFalse(map.containsKey(0));
+        assertEquals(-1, map.getOrDefault(0, -1));
+        map.put(0, 7);
+        map.put(0, 8);
+        assertTrue(map.containsKey(0));
+        assertEquals(8, map.getOrDefault(0, -1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void behavesLikeAHashMapThroughResizes() {
+        Random random = new Random(42);
+        LongIntMap map = new LongIntMap(2);
+        Map<Long, Integer> reference = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            // Keys sharing their low bits, and a few negative and zero ones.
+            long key = (random.nextInt(5000) - 100L) << 20;
+            map.put(key, i);
+            reference.put(key, i);
+        }
+        assertEquals(reference.size(), map.size());
+        reference.forEach((key, value) -> assertEquals(value, map.getOrDefault(key, -1)));
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(reference, visited);
+        assertFalse(map.containsKey(1));
+    }
+
+    @Test
+    void clearRemovesEveryKey() {
+        LongIntMap map = new LongIntMap();
+        map.put(0, 1);
+        map.put(12, 2);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0));
+        assertFalse(map.containsKey(12));
+        map.put(12, 3);
+        assertEquals(3, map.getOrDefault(12, -1));
+    }
+}
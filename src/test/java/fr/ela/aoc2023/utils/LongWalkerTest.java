@@ -0,0 +1,102 @@
+package fr.ela.aoc2023.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongWalkerTest {
+
+    private static LongGrid randomGrid(Random random, int width, int height) {
+        LongGrid grid = new LongGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                grid.putLong(x, y, 1 + random.nextInt(9));
+            }
+        }
+        return grid;
+    }
+
+    private static LongWalker<Position> walker(LongGrid grid) {
+        return new LongWalker<>(grid::cardinals, grid::getLong, NodeEncoder.positions(grid));
+    }
+
+    // Plain Dijkstra on the cells, the cost of a path being the sum of its cells.
+    private static long reference(LongGrid grid, Position start, Position end) {
+        long[] best = new long[grid.getWidth() * grid.getHeight()];
+        Arrays.fill(best, Long.MAX_VALUE);
+        PriorityQueue<Object[]> queue = new PriorityQueue<>((a, b) -> Long.compare((long) a[0], (long) b[0]));
+        queue.add(new Object[]{grid.getLong(start), start});
+        while (!queue.isEmpty()) {
+            Object[] cur = queue.remove();
+            long cost = (long) cur[0];
+            Position p = (Position) cur[1];
+            int index = p.y() * grid.getWidth() + p.x();
+            if (cost >= best[index]) {
+                continue;
+            }
+            best[index] = cost;
+            for (Position n : grid.cardinals(p)) {
+                queue.add(new Object[]{cost + grid.getLong(n), n});
+            }
+        }
+        return best[end.y() * grid.getWidth() + end.x()];
+    }
+
+    @Test
+    void everySearchFindsTheSameCost() {
+        Random random = new Random(5);
+        for (int i = 0; i < 10; i++) {
+            LongGrid grid = randomGrid(random, 20 + i, 15);
+            Position start = new Position(0, 0);
+            Position end = new Position(grid.getWidth() - 1, grid.getHeight() - 1);
+            OptionalLong expected = OptionalLong.of(reference(grid, start, end));
+            LongWalker<Position> walker = walker(grid);
+
+            assertEquals(expected.getAsLong(), walker.findShortestPath(List.of(start), end::equals).cost());
+            assertEquals(expected, walker.shortestCost(List.of(start), end::equals));
+            assertEquals(expected, walker.shortestCost(List.of(start), end::equals, p -> p.distance(end), true));
+            assertEquals(expected, walker.shortestCost(List.of(start), end::equals, p -> p.x() % 2 == 0 ? p.distance(end) : 0, false));
+            assertEquals(expected, walker.shortestCostBidirectional(List.of(start), List.of(end), grid::cardinals));
+            for (long delta : new long[]{1, 9, 50}) {
+                assertEquals(expected, walker.parallel(delta).shortestCost(List.of(start), end::equals));
+            }
+        }
+    }
+
+    @Test
+    void bidirectionalPathGoesFromStartToEnd() {
+        LongGrid grid = randomGrid(new Random(11), 30, 30);
+        Position start = new Position(0, 0);
+        Position end = new Position(29, 29);
+        Path<Position, Long> path = walker(grid).findShortestPathBidirectional(List.of(start), List.of(end), grid::cardinals);
+
+        List<Position> positions = path.path();
+        assertEquals(start, positions.get(0));
+        assertEquals(end, positions.get(positions.size() - 1));
+        for (int i = 1; i < positions.size(); i++) {
+            assertEquals(1, positions.get(i - 1).distance(positions.get(i)));
+        }
+        assertEquals(reference(grid, start, end), path.cost());
+        assertEquals(path.cost(), positions.stream().mapToLong(grid::getLong).sum());
+    }
+
+    @Test
+    void unreachableEndHasNoCost() {
+        LongGrid grid = new LongGrid(3, 1);
+        grid.putLong(0, 0, 1);
+        grid.putLong(2, 0, 1);
+        // The middle cell is missing : it has no neighbours.
+        LongWalker<Position> walker = new LongWalker<>(p -> grid.cardinalsIf(p, grid::contains), grid::getLong, NodeEncoder.positions(grid));
+        Position start = new Position(0, 0);
+        Position end = new Position(2, 0);
+        assertEquals(OptionalLong.empty(), walker.shortestCost(List.of(start), end::equals));
+        assertEquals(OptionalLong.empty(), walker.shortestCostBidirectional(List.of(start), List.of(end), p -> grid.cardinalsIf(p, grid::contains)));
+        assertEquals(OptionalLong.empty(), walker.parallel(3).shortestCost(List.of(start), end::equals));
+    }
+}
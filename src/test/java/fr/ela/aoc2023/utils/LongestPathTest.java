@@ -0,0 +1,70 @@
+package fr.ela.aoc2023.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongestPathTest {
+
+    @Test
+    void longestPathOfAnAcyclicGraph() {
+        LongestPath graph = new LongestPath(5, ForkJoinPool.commonPool());
+        graph.addEdge(0, 1, 1);
+        graph.addEdge(0, 2, 5);
+        graph.addEdge(1, 3, 10);
+        graph.addEdge(2, 3, 2);
+        graph.addEdge(3, 4, 1);
+        assertTrue(graph.isAcyclic());
+        assertEquals(OptionalInt.of(12), graph.longest(0, 4));
+        assertEquals(OptionalInt.empty(), graph.longest(4, 0));
+    }
+
+    @Test
+    void longestSimplePathOfGraphsWithCycles() {
+        Random random = new Random(23);
+        for (int graphs = 0; graphs < 20; graphs++) {
+            int size = 10;
+            LongestPath graph = new LongestPath(size, ForkJoinPool.commonPool());
+            List<List<int[]>> edges = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                edges.add(new ArrayList<>());
+            }
+            for (int i = 0; i < 25; i++) {
+                int from = random.nextInt(size);
+                int to = random.nextInt(size);
+                if (from != to) {
+                    int weight = 1 + random.nextInt(20);
+                    // Both ways, like the trails of D23 part 2.
+                    graph.addEdge(from, to, weight);
+                    graph.addEdge(to, from, weight);
+                    edges.get(from).add(new int[]{to, weight});
+                    edges.get(to).add(new int[]{from, weight});
+                }
+            }
+            assertFalse(graph.isAcyclic());
+            int expected = bruteForce(edges, 0, size - 1, 1, 0);
+            assertEquals(expected < 0 ? OptionalInt.empty() : OptionalInt.of(expected), graph.longest(0, size - 1));
+        }
+    }
+
+    private static int bruteForce(List<List<int[]>> edges, int node, int end, long path, int length) {
+        if (node == end) {
+            return length;
+        }
+        int best = -1;
+        for (int[] edge : edges.get(node)) {
+            if ((path & (1L << edge[0])) == 0) {
+                best = Math.max(best, bruteForce(edges, edge[0], end, path | (1L << edge[0]), length + edge[1]));
+            }
+        }
+        return best;
+    }
+}